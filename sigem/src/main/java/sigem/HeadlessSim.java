@@ -0,0 +1,537 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package sigem;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.*;
+
+import com.simsilica.es.*;
+import com.simsilica.es.base.DefaultEntityData;
+import com.simsilica.mathd.*;
+import com.simsilica.sim.*;
+import com.simsilica.sim.common.DecaySystem;
+
+import sigem.es.*;
+import sigem.sim.*;
+
+/**
+ *  Runs the game simulation without any window or renderer for 
+ *  benchmarking.  Sets up the same game systems as the GameSessionState,
+ *  populates the arena with asteroids and AI driven ships, and then runs
+ *  a fixed number of ticks as fast as it can before printing the tick 
+ *  time percentiles for each system.
+ *
+ *  <p>Usage: HeadlessSim [--scenario idle|cruise|combat] [--asteroids n]
+ *  [--ships n] [--ticks n] [--warmup n] [--seed n] [--threads n]</p> 
+ *
+ *  <p>The systems are updated directly instead of through 
+ *  GameSystemManager.update() so that the simulation time can advance by 
+ *  a fixed 1/60th of a second per tick no matter how fast the ticks 
+ *  actually run.  With the same seed, every run simulates the same game.</p>
+ *
+ *  <p>Physics listeners do their work inside SimplePhysics' update so each
+ *  one is wrapped to time its own calls.  Those times are reported on their
+ *  own rows and taken out of the SimplePhysics row.  Contact listeners are 
+ *  called from the CollisionSystem's endFrame() and are included in its 
+ *  listener time.</p>
+ *
+ *  @author    agent
+ */
+public class HeadlessSim {
+
+    static Logger log = LoggerFactory.getLogger(HeadlessSim.class);
+
+    /**
+     *  The scripted ship behavior to run.
+     */
+    public enum Scenario { 
+        /** Ships sit still and only the asteroids move. */
+        Idle, 
+        /** Ships thrust and turn randomly. */
+        Cruise, 
+        /** Ships thrust, turn, and fire missiles. */
+        Combat
+    }
+ 
+    private Scenario scenario = Scenario.Combat;
+    private int asteroidCount = 200;
+    private int shipCount = 16;
+    private int ticks = 6000;
+    private int warmup = 600;
+    private long seed = 0;
+    private int threads = 1;
+    
+    // How often (in ticks) the ship AI changes its mind
+    private int decisionInterval = 30;
+    private double fireChance = 0.05;
+    
+    private Random rand;
+    private ForkJoinPool pool;
+    private GameSystemManager systems;
+    private EntityData ed;
+    private GameEntities gameEntities;
+    private List<EntityId> ships = new ArrayList<>();
+    
+    private List<GameSystem> updateOrder = new ArrayList<>();
+    private List<Probe> probes = new ArrayList<>();
+    private List<TimedListener> listenerTimers = new ArrayList<>();
+    private Probe physicsProbe;
+    private long[] tickTimes;
+    private int tick;
+    
+    private static final long STEP_NANOS = 1000000000L / 60;
+ 
+    public HeadlessSim() {
+    }
+    
+    public void setScenario( Scenario scenario ) {
+        this.scenario = scenario;
+    }
+    
+    public void setAsteroidCount( int asteroidCount ) {
+        this.asteroidCount = asteroidCount;
+    }
+
+    public void setShipCount( int shipCount ) {
+        this.shipCount = shipCount;
+    }
+    
+    public void setTicks( int ticks ) {
+        this.ticks = ticks;
+    }
+ 
+    /**
+     *  Sets the number of ticks to run before timing starts so that
+     *  the JIT has a chance to settle.
+     */   
+    public void setWarmup( int warmup ) {
+        this.warmup = warmup;
+    }
+    
+    public void setSeed( long seed ) {
+        this.seed = seed;
+    }
+ 
+    /**
+     *  Sets the number of threads that the physics passes and the collision
+     *  narrow phase are split across.  With one thread, everything runs on
+     *  the calling thread.  Defaults to 1.
+     */   
+    public void setThreads( int threads ) {
+        this.threads = threads;
+    }
+ 
+    /**
+     *  Sets up the same systems as the GameSessionState with a timing probe
+     *  after each one.  The systems are updated in the order they were 
+     *  added so the time between two probes is the time spent in the 
+     *  system between them.
+     */
+    protected void setupSystems() {
+        systems = new GameSystemManager();
+        ed = new DefaultEntityData();
+        systems.register(EntityData.class, ed);
+        
+        add(probe(null));
+        add(new DecaySystem());
+        add(probe("DecaySystem"));
+        add(GameEntities.class, gameEntities = new GameEntities(ed));
+        add(probe("GameEntities"));
+        SimplePhysics physics = new TimedPhysics();
+        CollisionSystem collisions = new CollisionSystem();
+        if( threads > 1 ) {
+            pool = new ForkJoinPool(threads);
+            physics.setParallelPool(pool);
+            collisions.setParallelPool(pool);
+        }
+        add(SimplePhysics.class, physics);
+        add(physicsProbe = probe("SimplePhysics"));
+        add(new GravitySystem());
+        add(probe("GravitySystem"));
+        add(CollisionSystem.class, collisions);
+        add(probe("CollisionSystem"));
+        add(AsteroidHitListener.class, new AsteroidHitListener());
+        add(probe("AsteroidHitListener"));
+        add(MissileHitListener.class, new MissileHitListener());
+        add(probe("MissileHitListener"));
+        add(new PositionPublisher());
+        add(probe("PositionPublisher"));
+        add(new ShipInputSystem());
+        add(probe("ShipInputSystem"));
+        add(new ArenaBoundary(GameConstants.ARENA_EXTENTS));
+        add(probe("ArenaBoundary"));
+    }
+    
+    private void add( GameSystem system ) {
+        systems.addSystem(system);
+        updateOrder.add(system);
+    }
+ 
+    private <T extends GameSystem> void add( Class<T> type, T system ) {
+        systems.register(type, system);
+        updateOrder.add(system);
+    }
+    
+    private Probe probe( String name ) {
+        Probe result = new Probe(name, probes.isEmpty() ? null : probes.get(probes.size() - 1)); 
+        probes.add(result);
+        return result;
+    }
+ 
+    /**
+     *  Advances the simulation time by exactly one step and updates all of
+     *  the systems with it.
+     */   
+    protected void step( long clock ) {
+        SimTime time = systems.getStepTime();
+        time.update(clock);
+        for( GameSystem system : updateOrder ) {
+            system.update(time);
+        }
+    }
+ 
+    protected void populate() {
+        Vec3d extents = GameConstants.ARENA_EXTENTS;
+ 
+        EntityId planet = ed.createEntity();
+        ed.setComponents(planet,
+            new Position(0, 0, 0),
+            new MassProperties(0),
+            ObjectType.create(ObjectType.TYPE_PLANET, ed),
+            new SphereShape(8, new Vec3d()),
+            new GravitySource(1, 1, 16 * 4)
+            );
+        
+        for( int i = 0; i < asteroidCount; i++ ) {
+            double x = rand.nextDouble() * extents.x * 2 - extents.x;     
+            double z = rand.nextDouble() * extents.z * 2 - extents.z;
+            double xImp = rand.nextDouble() * 8 - 4;     
+            double zImp = rand.nextDouble() * 8 - 4;     
+            int size = rand.nextInt(5) + 1;
+            gameEntities.createAsteroid(new Vec3d(x, 0, z), 
+                                        new Vec3d(xImp, 0, zImp),
+                                        new Vec3d(rand.nextDouble() + 1, rand.nextDouble(), 0),
+                                        size);                  
+        }
+        
+        for( int i = 0; i < shipCount; i++ ) {
+            double x = rand.nextDouble() * extents.x * 2 - extents.x;     
+            double z = rand.nextDouble() * extents.z * 2 - extents.z;
+            EntityId ship = ed.createEntity();
+            ed.setComponents(ship,
+                new Position(x, 0, z),
+                new MassProperties(1/50.0),
+                ObjectType.create(ObjectType.TYPE_SHIP, ed),
+                new SphereShape(2, new Vec3d()),
+                new ShipInput(new Vec3d(0, 0, 0)),
+                new Name("AI " + i)
+                );
+            ships.add(ship);
+        }
+    }
+    
+    /**
+     *  Runs the scripted ship behavior for the specified tick.
+     */
+    protected void drive( int tick ) {
+        if( scenario == Scenario.Idle ) {
+            return;
+        }
+        for( int i = 0; i < ships.size(); i++ ) {
+            EntityId ship = ships.get(i);
+            
+            // Stagger the decisions so that they don't all happen on the
+            // same tick.
+            if( (tick + i) % decisionInterval == 0 ) {
+                double turn = rand.nextDouble() * 2 - 1;
+                double thrust = rand.nextDouble();
+                ed.setComponent(ship, new ShipInput(new Vec3d(turn, 0, thrust)));
+            }
+            
+            if( scenario == Scenario.Combat && rand.nextDouble() < fireChance ) {
+                Position pos = ed.getComponent(ship, Position.class);
+                Vec3d dir = pos.getFacing().mult(Vec3d.UNIT_Z); 
+                Vec3d loc = pos.getLocation().add(dir.mult(2));
+                gameEntities.createMissile(ship, loc, dir.mult(50), 2);
+            }
+        }
+    }
+    
+    public void run() {
+        rand = new Random(seed);
+        setupSystems();
+        
+        systems.initialize();
+        populate();
+        systems.start();
+        
+        tickTimes = new long[ticks];
+        for( Probe p : probes ) {
+            p.times = new long[ticks];
+        }
+        for( TimedListener l : listenerTimers ) {
+            l.times = new long[ticks];
+        }
+        
+        log.info("Running scenario:" + scenario + " asteroids:" + asteroidCount 
+                    + " ships:" + shipCount + " ticks:" + ticks + " warmup:" + warmup
+                    + " threads:" + threads);
+        
+        long clock = 0;
+        for( int i = -warmup; i < ticks; i++ ) {
+            drive(i + warmup);
+            tick = i;
+            for( Probe p : probes ) {
+                p.tick = i;
+            }
+            clock += STEP_NANOS;
+            long start = System.nanoTime();
+            step(clock);
+            if( i >= 0 ) {
+                tickTimes[i] = System.nanoTime() - start;
+            }
+        }
+        
+        systems.stop();
+        systems.terminate();
+        if( pool != null ) {
+            pool.shutdown();
+        }
+        
+        report();
+    }
+ 
+    protected void report() {
+        System.out.println(String.format("%-28s %10s %10s %10s %10s %10s", 
+                                         "system (ms)", "mean", "p50", "p90", "p99", "max"));
+        for( Probe p : probes ) {
+            if( p.name == null ) {
+                continue;
+            }
+            long[] times = p.times;
+            if( p == physicsProbe ) {
+                // Take out the time spent in the listeners
+                times = times.clone();
+                for( TimedListener l : listenerTimers ) {
+                    for( int i = 0; i < times.length; i++ ) {
+                        times[i] -= l.times[i];
+                    }
+                }
+            }
+            printRow(p.name, times);
+        }
+        for( TimedListener l : listenerTimers ) {
+            printRow(l.name + " (listener)", l.times);
+        }
+        printRow("total", tickTimes);
+        System.out.println("entities spawned:" + gameEntities.getSpawnCount() 
+                            + " despawned:" + gameEntities.getDespawnCount());
+    }
+    
+    private void printRow( String name, long[] times ) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        double total = 0;
+        for( long t : sorted ) {
+            total += t;
+        }
+        System.out.println(String.format("%-28s %10.4f %10.4f %10.4f %10.4f %10.4f", 
+                                         name,
+                                         total / sorted.length / 1000000.0,
+                                         percentile(sorted, 0.5) / 1000000.0,
+                                         percentile(sorted, 0.9) / 1000000.0,
+                                         percentile(sorted, 0.99) / 1000000.0,
+                                         sorted[sorted.length - 1] / 1000000.0));
+    }
+    
+    private static long percentile( long[] sorted, double p ) {
+        int index = (int)Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+ 
+    public static void main( String... args ) {
+        HeadlessSim sim = new HeadlessSim();
+        for( int i = 0; i < args.length; i++ ) {
+            String arg = args[i];
+            if( i + 1 >= args.length ) {
+                throw new IllegalArgumentException("Missing value for:" + arg);
+            }
+            String value = args[++i];
+            switch( arg ) {
+                case "--scenario":
+                    String name = value.substring(0, 1).toUpperCase() + value.substring(1).toLowerCase(); 
+                    sim.setScenario(Scenario.valueOf(name));
+                    break;
+                case "--asteroids":
+                    sim.setAsteroidCount(Integer.parseInt(value));
+                    break;
+                case "--ships":
+                    sim.setShipCount(Integer.parseInt(value));
+                    break;
+                case "--ticks":
+                    sim.setTicks(Integer.parseInt(value));
+                    break;
+                case "--warmup":
+                    sim.setWarmup(Integer.parseInt(value));
+                    break;
+                case "--seed":
+                    sim.setSeed(Long.parseLong(value));
+                    break;
+                case "--threads":
+                    sim.setThreads(Integer.parseInt(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option:" + arg);
+            }
+        }
+        sim.run();
+    }
+ 
+    /**
+     *  Wraps every physics listener that gets added so that the time
+     *  spent in each one can be reported separately.
+     */   
+    private class TimedPhysics extends SimplePhysics {
+        private Map<PhysicsListener, TimedListener> wrappers = new HashMap<>();
+        
+        @Override
+        public void addPhysicsListener( PhysicsListener l ) {
+            TimedListener timed = new TimedListener(l);
+            wrappers.put(l, timed);
+            listenerTimers.add(timed);
+            super.addPhysicsListener(timed);
+        }
+        
+        @Override
+        public void removePhysicsListener( PhysicsListener l ) {
+            TimedListener timed = wrappers.remove(l);
+            super.removePhysicsListener(timed != null ? timed : l);
+        }
+    }
+ 
+    /**
+     *  Accumulates the time spent in each call to the wrapped listener
+     *  for the current tick.  Each call pays for two System.nanoTime() calls
+     *  so the listener rows are slightly inflated for large body counts.
+     */   
+    private class TimedListener implements PhysicsListener {
+        final PhysicsListener delegate;
+        final String name;
+        long[] times;
+        
+        public TimedListener( PhysicsListener delegate ) {
+            this.delegate = delegate;
+            this.name = delegate.getClass().getSimpleName();
+        }
+        
+        private void record( long start ) {
+            if( times != null && tick >= 0 ) {
+                times[tick] += System.nanoTime() - start;
+            }
+        }
+        
+        @Override
+        public void beginFrame( SimTime time ) {
+            long start = System.nanoTime();
+            delegate.beginFrame(time);
+            record(start);
+        }
+        
+        @Override
+        public void addBody( Body body ) {
+            long start = System.nanoTime();
+            delegate.addBody(body);
+            record(start);
+        }
+        
+        @Override
+        public void updateBody( Body body ) {
+            long start = System.nanoTime();
+            delegate.updateBody(body);
+            record(start);
+        }
+        
+        @Override
+        public void removeBody( Body body ) {
+            long start = System.nanoTime();
+            delegate.removeBody(body);
+            record(start);
+        }
+        
+        @Override
+        public void endFrame( SimTime time ) {
+            long start = System.nanoTime();
+            delegate.endFrame(time);
+            record(start);
+        }
+    }
+ 
+    /**
+     *  A do-nothing game system that records the time since the previous
+     *  probe was updated.
+     */   
+    private static class Probe extends AbstractGameSystem {
+        final String name;
+        final Probe previous;
+        long last;
+        long[] times;
+        int tick;
+        
+        public Probe( String name, Probe previous ) {
+            this.name = name;
+            this.previous = previous;
+        }
+        
+        @Override
+        protected void initialize() {
+        }
+        
+        @Override
+        protected void terminate() {
+        }
+        
+        @Override
+        public void update( SimTime time ) {
+            last = System.nanoTime();
+            if( previous != null && tick >= 0 ) {
+                times[tick] = last - previous.last;
+            }
+        }
+    }
+}
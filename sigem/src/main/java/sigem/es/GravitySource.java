@@ -0,0 +1,79 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package sigem.es;
+
+import com.simsilica.es.EntityComponent;
+
+
+/**
+ *  Makes a positioned entity pull on the physics bodies around it.  The
+ *  pull at distance d is strength / d^falloff and is not applied beyond
+ *  the cutoff distance.
+ *
+ *  @author    agent
+ */
+public class GravitySource implements EntityComponent {
+    private double strength;
+    private double falloff;
+    private double cutoff;
+    
+    protected GravitySource() {
+    }
+    
+    public GravitySource( double strength, double falloff, double cutoff ) {
+        this.strength = strength;
+        this.falloff = falloff;
+        this.cutoff = cutoff;
+    }
+    
+    public double getStrength() {
+        return strength;
+    }
+    
+    public double getFalloff() {
+        return falloff;
+    }
+    
+    public double getCutoff() {
+        return cutoff;
+    }
+ 
+    @Override   
+    public String toString() {
+        return "GravitySource[strength=" + strength + ", falloff=" + falloff + ", cutoff=" + cutoff + "]";
+    } 
+}
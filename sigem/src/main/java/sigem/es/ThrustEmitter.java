@@ -0,0 +1,96 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package sigem.es;
+
+import com.simsilica.es.EntityComponent;
+
+
+/**
+ *  Exhaust emitter state for an entity.  The view spawns its own short-lived 
+ *  puffs behind the entity's Position while the emitter is active so that 
+ *  the puffs themselves never need to be entities.  This component only
+ *  changes when the thrusters are turned on or off.
+ *
+ *  @author    agent
+ */
+public class ThrustEmitter implements EntityComponent {
+    private boolean active;
+    private double interval;
+    private double offset;
+    private double lifetime;
+    
+    protected ThrustEmitter() {
+    }
+    
+    /**
+     *  Creates an emitter that, when active, puffs every 'interval' seconds
+     *  at 'offset' units behind the entity and where each puff fades out
+     *  over 'lifetime' seconds.
+     */
+    public ThrustEmitter( boolean active, double interval, double offset, double lifetime ) {
+        this.active = active;
+        this.interval = interval;
+        this.offset = offset;
+        this.lifetime = lifetime;
+    }
+    
+    public ThrustEmitter changeActive( boolean active ) {
+        return new ThrustEmitter(active, interval, offset, lifetime);
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+    
+    public double getInterval() {
+        return interval;
+    }
+    
+    public double getOffset() {
+        return offset;
+    }
+    
+    public double getLifetime() {
+        return lifetime;
+    }
+ 
+    @Override   
+    public String toString() {
+        return "ThrustEmitter[active=" + active + ", interval=" + interval 
+                + ", offset=" + offset + ", lifetime=" + lifetime + "]";
+    } 
+}
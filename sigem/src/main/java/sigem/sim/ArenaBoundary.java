@@ -45,33 +45,59 @@ import com.simsilica.sim.*;
 import sigem.es.*;
 
 /**
- *  This system clips all positioned entities to the arena bounds, wrapping
- *  their coordinates as necessary.
+ *  This system keeps all positioned entities within the arena bounds, by 
+ *  default wrapping their coordinates as necessary.  Physics bodies are 
+ *  handled by a BoundaryPolicy that SimplePhysics applies as part of 
+ *  integration.  Positioned entities that aren't physics bodies are handled 
+ *  by watching their Position components.
  *
  *  @author    Paul Speed
  */
-public class ArenaBoundary extends AbstractGameSystem  
-                           implements PhysicsListener {
+public class ArenaBoundary extends AbstractGameSystem {
 
-    static Logger log = LoggerFactory.getLogger(PlanetGravity.class);
+    static Logger log = LoggerFactory.getLogger(ArenaBoundary.class);
+
+    /**
+     *  What happens to things that leave the arena.
+     */
+    public enum Mode { 
+        /** They reappear on the opposite side of the arena. */
+        Wrap, 
+        /** They are stopped at the edge of the arena. */
+        Clamp, 
+        /** Their entities are removed. */
+        Kill 
+    }
 
     private EntityData ed;
+    private SimplePhysics physics;
     private Vec3d bounds;
+    private Mode mode;
     private ObjectContainer objects;    
 
     public ArenaBoundary( Vec3d bounds ) {
-        this.bounds = bounds; 
+        this(bounds, Mode.Wrap);
+    }
+    
+    public ArenaBoundary( Vec3d bounds, Mode mode ) {
+        this.bounds = bounds;
+        this.mode = mode; 
+    }
+ 
+    public Mode getMode() {
+        return mode;
     }
  
     @Override
     protected void initialize() {
         this.ed = getSystem(EntityData.class, true);
-        getSystem(SimplePhysics.class).addPhysicsListener(this);
+        this.physics = getSystem(SimplePhysics.class);
+        physics.setBoundaryPolicy(new ArenaPolicy());
     }
 
     @Override
     protected void terminate() {
-        getSystem(SimplePhysics.class).removePhysicsListener(this);
+        physics.setBoundaryPolicy(null);
     }
 
     @Override
@@ -90,22 +116,32 @@ public class ArenaBoundary extends AbstractGameSystem
     public void update( SimTime time ) {
         objects.update();
     }
+ 
+    private boolean isOutside( Vec3d v ) {
+        return v.x < -bounds.x || v.x > bounds.x || v.z < -bounds.z || v.z > bounds.z; 
+    }
 
-    private boolean clamp( Vec3d v, Vec3d target ) {
+    /**
+     *  Wraps or clamps v into the arena based on the mode, putting the 
+     *  results in target.  Returns true if anything changed.
+     */
+    private boolean constrain( Vec3d v, Vec3d target ) {
         boolean changed = false;
         target.set(v);
+        double wrapX = mode == Mode.Wrap ? bounds.x * 2 : 0;
+        double wrapZ = mode == Mode.Wrap ? bounds.z * 2 : 0;
         if( v.x < -bounds.x ) {
-            target.x = v.x + bounds.x * 2;
+            target.x = wrapX == 0 ? -bounds.x : v.x + wrapX;
             changed = true;
         } else if( v.x > bounds.x ) {
-            target.x = v.x - bounds.x * 2;
+            target.x = wrapX == 0 ? bounds.x : v.x - wrapX;
             changed = true;
         }
         if( v.z < -bounds.z ) {
-            target.z = v.z + bounds.z * 2;
+            target.z = wrapZ == 0 ? -bounds.z : v.z + wrapZ;
             changed = true;
         } else if( v.z > bounds.z ) {
-            target.z = v.z - bounds.z * 2;
+            target.z = wrapZ == 0 ? bounds.z : v.z - wrapZ;
             changed = true;
         }
         if( v.y != bounds.y ) {
@@ -115,31 +151,38 @@ public class ArenaBoundary extends AbstractGameSystem
         return changed;  
     } 
  
-    @Override
-    public void beginFrame( SimTime time ) {
-    }
- 
-    @Override
-    public void addBody( Body body ) {    
-    }
- 
     /**
-     *  Clamp the physics objects directly... the entity will get
-     *  clamped by the ObjectContainer.
-     */   
-    @Override
-    public void updateBody( Body body ) {
-        clamp(body.pos, body.pos);
-    }
- 
-    @Override
-    public void removeBody( Body body ) {
-    }
-
-    @Override
-    public void endFrame( SimTime time ) {
+     *  Applied to the physics bodies during integration.
+     */
+    private class ArenaPolicy implements BoundaryPolicy {
+    
+        @Override
+        public boolean apply( Body body ) {
+            Vec3d pos = body.pos;
+            if( mode == Mode.Kill && isOutside(pos) ) {
+                return false;
+            }
+            if( mode == Mode.Clamp ) {
+                // Stop any movement into the wall that we hit
+                if( (pos.x < -bounds.x && body.velocity.x < 0) || (pos.x > bounds.x && body.velocity.x > 0) ) {
+                    body.velocity.x = 0;
+                }
+                if( (pos.z < -bounds.z && body.velocity.z < 0) || (pos.z > bounds.z && body.velocity.z > 0) ) {
+                    body.velocity.z = 0;
+                }
+            }
+            if( constrain(pos, pos) ) {
+                body.bounds.setCenter(pos);
+            }
+            return true;
+        }
     }
     
+    /**
+     *  Watches the positioned entities that aren't physics bodies.  The
+     *  physics bodies have already been handled by the time their
+     *  positions are published.
+     */
     private class ObjectContainer extends EntityContainer<Entity> {
  
         private Vec3d temp = new Vec3d();
@@ -161,9 +204,18 @@ public class ArenaBoundary extends AbstractGameSystem
     
         @Override     
         protected void updateObject( Entity object, Entity e ) {
+            if( physics.getBody(e.getId()) != null ) {
+                return;
+            }
             Position pos = object.get(Position.class);
             Vec3d loc = pos.getLocation();
-            if( clamp(loc, temp) ) {
+            if( mode == Mode.Kill ) {
+                if( isOutside(loc) ) {
+                    ed.removeEntity(e.getId());
+                }
+                return;
+            }
+            if( constrain(loc, temp) ) {
                 object.set(pos.changeLocation(temp.clone()));
             }
         }
@@ -174,5 +226,3 @@ public class ArenaBoundary extends AbstractGameSystem
     }    
     
 }
-
-
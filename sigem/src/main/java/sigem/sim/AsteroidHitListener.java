@@ -60,6 +60,10 @@ public class AsteroidHitListener extends AbstractGameSystem
     private EntityData ed;
     private GameEntities gameEntities;
     private Random rand = new Random(0);
+    
+    private int asteroidType;
+    private int chunkType;
+    private int missileType;
                                  
     public AsteroidHitListener() {
     }
@@ -69,7 +73,13 @@ public class AsteroidHitListener extends AbstractGameSystem
         this.ed = getSystem(EntityData.class, true);
         this.gameEntities = getSystem(GameEntities.class, true);
         
-        getSystem(CollisionSystem.class).addContactListener(this);
+        this.asteroidType = ObjectType.create(ObjectType.TYPE_ASTEROID, ed).getType();
+        this.chunkType = ObjectType.create(ObjectType.TYPE_ASTEROID_CHUNK, ed).getType();
+        this.missileType = ObjectType.create(ObjectType.TYPE_MISSILE, ed).getType();
+        
+        CollisionSystem collisions = getSystem(CollisionSystem.class); 
+        collisions.addContactListener(asteroidType, chunkType, this);
+        collisions.addContactListener(missileType, asteroidType, this);
     }
 
     @Override
@@ -79,33 +89,14 @@ public class AsteroidHitListener extends AbstractGameSystem
 
     @Override
     public void newContact( Contact c ) {
-        ObjectType type1 = ed.getComponent(c.b1.bodyId, ObjectType.class);
-        ObjectType type2 = ed.getComponent(c.b2.bodyId, ObjectType.class);
-        
-        String t1 = type1 == null ? null : type1.getTypeName(ed);
-        String t2 = type2 == null ? null : type2.getTypeName(ed);  
-        
-        if( !ObjectType.TYPE_ASTEROID.equals(t1) && !ObjectType.TYPE_ASTEROID.equals(t2) ) {
-            // Neither side is an asteroid... nothing to do
-            return;
-        }
-
-        // If either side is a chunk then we'll negate the energy
-        if( ObjectType.TYPE_ASTEROID_CHUNK.equals(t1) || ObjectType.TYPE_ASTEROID_CHUNK.equals(t2) ) {
-            c.energy = 0;
-            return;
-        } 
-        
-        //log.info("contact:" + c + "  types:" + t1 + ", " + t2);        
-        
-        if( ObjectType.TYPE_MISSILE.equals(t1) ) {
-            // Blow up b2
+        // We're only registered for asteroid+chunk and missile+asteroid
+        // contacts and the collision system orders the bodies for us.
+        if( c.b1.type == missileType ) {
             missileHit(c.b1, c.b2, c);
-        } else if( ObjectType.TYPE_MISSILE.equals(t2) ) {
-            // Blow up b1
-            missileHit(c.b2, c.b1, c);
-        } 
-        
+        } else {
+            // Chunks just pass through asteroids
+            c.energy = 0;
+        }
     }
     
     protected void missileHit( Body missile, Body asteroid, Contact contact ) {
@@ -139,20 +130,12 @@ public class AsteroidHitListener extends AbstractGameSystem
 
         // Create some asteroid debris
         int count = rand.nextInt((int)(3 * asteroid.radius)) + 3;
-        for( int i = 0; i < count; i++ ) {
-            double x = rand.nextDouble() * 2 - 1;
-            double z = rand.nextDouble() * 2 - 1;
-            Vec3d dir = new Vec3d(x, 0, z);
-            double size = 0.2 + rand.nextDouble() * 0.4;
-            
-            EntityId chunk = gameEntities.createAsteroidChunk(debrisLoc.add(dir), dir,
-                                        new Vec3d(rand.nextDouble() + 1, rand.nextDouble(), 0),
-                                        size);            
-        }     
+        gameEntities.createDebris(debrisLoc, count);
  
         gameEntities.lootDrop(ObjectType.TYPE_ASTEROID, debrisLoc, 1/asteroid.radius);
  
-        // And remove the old one       
+        // And remove the old one.  The collision system won't send us any
+        // other contacts with it this frame.
         ed.removeEntity(asteroid.bodyId);
     }
 }
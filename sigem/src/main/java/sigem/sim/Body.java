@@ -65,11 +65,46 @@ public class Body {
     
     public double radius = 1;
     public double invMass = 1;
+    
+    /**
+     *  Set by the collision system each frame for bodies that moved farther
+     *  than their own radius, like missiles, and so could have passed through
+     *  other bodies between frames.  The collision system checks their whole
+     *  path for the frame instead of just their end position.
+     */
+    public boolean fastMover;
+    
+    /**
+     *  The position at the start of the last integration step.
+     */
+    public Vec3d lastPos = new Vec3d();
+    
+    /**
+     *  The collision system's view of the body's movement this frame and the 
+     *  radius that broadphases should use.  For bodies that aren't fast 
+     *  movers broadRadius is the same as radius.
+     */
+    public Vec3d sweep = new Vec3d();
+    public double broadRadius = 1;
     public AaBBox bounds = new AaBBox(radius);
     
     public Quatd orientation = new Quatd();
     public volatile ControlDriver driver; 
  
+    /**
+     *  The ObjectType ID of the body's entity at the time the body was
+     *  created or -1 if it had none.  Cached here so that contact dispatch
+     *  doesn't have to look up components.
+     */
+    public int type = -1;
+ 
+    /**
+     *  Set by SimplePhysics when the boundary policy rejects the body.  The
+     *  body is no longer published to the physics listeners and its entity 
+     *  is removed at the end of the frame.
+     */
+    public boolean outOfBounds;
+ 
     public Body( EntityId bodyId ) {
         this.bodyId = bodyId;
     }
@@ -81,6 +116,7 @@ public class Body {
     
     public void setPosition( Position pos ) {
         this.pos.set(pos.getLocation());
+        this.lastPos.set(this.pos);
         this.orientation.set(pos.getFacing());
     }
  
@@ -90,6 +126,7 @@ public class Body {
         rotVelocity.addScaledVectorLocal(rotAcceleration, stepTime);
         
         // Integrate position
+        lastPos.set(pos);
         pos.addScaledVectorLocal(velocity, stepTime);
         orientation.addScaledVectorLocal(rotVelocity, stepTime);
         orientation.normalizeLocal();
@@ -110,6 +147,8 @@ public class Body {
             .add("acceleration", acceleration)
             .add("radius", radius)
             .add("invMass", invMass)
+            .add("type", type)
+            .add("fastMover", fastMover)
             .add("driver", driver)
             .toString();
     }
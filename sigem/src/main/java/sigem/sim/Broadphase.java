@@ -0,0 +1,78 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package sigem.sim;
+
+
+/**
+ *  Finds the pairs of bodies that might be touching so that the collision
+ *  system only has to check those pairs in detail.  Implementations may return 
+ *  pairs that turn out not to collide but must never miss a pair that does.
+ *  Bodies should be treated as spheres of their broadRadius at their current
+ *  position, which also covers any swept movement for fast moving bodies.
+ *
+ *  <p>Pairs are reported as long keys with the index of the first body in
+ *  the high 32 bits and the index of the second body in the low 32 bits.  The
+ *  first index is always lower than the second and the keys are sorted so that
+ *  contacts are resolved in the same order regardless of implementation.</p>
+ *
+ *  @author    agent
+ */
+public interface Broadphase {
+
+    /**
+     *  Called when a body is added to the collision system.
+     */
+    public void addBody( Body body );
+    
+    /**
+     *  Called when a body is removed from the collision system.
+     */
+    public void removeBody( Body body );
+
+    /**
+     *  Finds the potentially colliding pairs in the specified bodies and
+     *  returns how many were found.  The pairs are available from getPairs()
+     *  until the next call.
+     */
+    public int findPairs( Body[] bodies );
+    
+    /**
+     *  Returns the pair keys found by the last call to findPairs().  Only
+     *  the first pair count elements are valid.
+     */   
+    public long[] getPairs();
+}
@@ -0,0 +1,101 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package sigem.sim;
+
+import java.util.Arrays;
+
+import com.simsilica.mathd.*;
+
+/**
+ *  Checks every pair of bodies against each other's wrapped bounding 
+ *  squares.  This is O(n^2) and is mostly useful for validating the other 
+ *  broadphase implementations.
+ *
+ *  @author    agent
+ */
+public class BruteForceBroadphase implements Broadphase {
+
+    private Vec3d arenaSize;
+    private long[] pairs = new long[256];
+    private int pairCount;
+    
+    public BruteForceBroadphase( Vec3d arenaExtents ) {
+        this.arenaSize = arenaExtents.mult(2);
+    }
+ 
+    @Override
+    public void addBody( Body body ) {
+    }
+    
+    @Override
+    public void removeBody( Body body ) {
+    }
+    
+    @Override
+    public int findPairs( Body[] bodies ) {
+        pairCount = 0;
+        int size = bodies.length;
+        for( int i = 0; i < size; i++ ) {
+            Body b1 = bodies[i];
+            for( int j = i + 1; j < size; j++ ) {
+                Body b2 = bodies[j];
+                double r = b1.broadRadius + b2.broadRadius;
+                if( wrappedDistance(b1.pos.x, b2.pos.x, arenaSize.x) >= r ) {
+                    continue;
+                }
+                if( wrappedDistance(b1.pos.z, b2.pos.z, arenaSize.z) >= r ) {
+                    continue;
+                }
+                if( pairCount == pairs.length ) {
+                    pairs = Arrays.copyOf(pairs, pairCount * 2);
+                }
+                pairs[pairCount++] = ((long)i << 32) | j;
+            }
+        }
+        return pairCount;
+    }
+    
+    @Override
+    public long[] getPairs() {
+        return pairs;
+    }
+    
+    private static double wrappedDistance( double a, double b, double size ) {
+        double d = Math.abs(a - b);
+        return Math.min(d, size - d); 
+    }
+}
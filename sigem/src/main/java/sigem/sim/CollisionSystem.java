@@ -36,6 +36,9 @@
 
 package sigem.sim;
 
+import java.util.Arrays;
+import java.util.concurrent.*;
+
 import org.slf4j.*;
 
 import com.jme3.util.SafeArrayList;
@@ -49,7 +52,22 @@ import sigem.es.Position;
 
 
 /**
- *  Watches the current set of physics bodies for collisions.
+ *  Watches the current set of physics bodies for collisions.  A Broadphase
+ *  implementation finds the pairs of bodies that are close enough to check
+ *  and the collision system resolves any real contacts among them.  By default,
+ *  a uniform grid broadphase is used.
+ *
+ *  <p>The narrow phase contact checks can optionally be run in parallel.
+ *  The pairs are split into fixed size chunks that each collect their contacts 
+ *  into their own buffer.  Since the pairs are sorted, walking the buffers in 
+ *  chunk order gives the same contact order as the serial check and the
+ *  contacts are then resolved on the simulation thread exactly as in the
+ *  serial case.</p>
+ *
+ *  <p>Bodies that moved farther than their own radius this frame are fast 
+ *  movers.  They are swept from their last position to their current 
+ *  position so that they can't tunnel through other bodies when the 
+ *  simulation rate is low.</p>
  *
  *  @author    Paul Speed
  */
@@ -63,18 +81,114 @@ public class CollisionSystem extends AbstractGameSystem
     private Vec3d arenaSize = GameConstants.ARENA_EXTENTS.mult(2);
     
     private SafeArrayList<Body> bodies = new SafeArrayList<>(Body.class);
+    private Broadphase broadphase;
+    
+    // Contacts are reused from frame to frame.  There is one buffer per 
+    // narrow phase chunk.
+    private ContactBuffer[] buffers = { new ContactBuffer() };
+    private int bufferCount;
+    
+    // Optional parallel execution of the narrow phase
+    private ForkJoinPool pool;
+    private int parallelThreshold = 4096;
+    private int chunkSize = 1024;
+    
+    /**
+     *  Used in place of a type ID to register a contact listener for 
+     *  any type of body.
+     */
+    public static final int ANY_TYPE = Integer.MIN_VALUE;
+    
+    private SafeArrayList<Registration> listeners = new SafeArrayList<>(Registration.class);
     
-    private SafeArrayList<ContactListener> listeners = new SafeArrayList<>(ContactListener.class);
+    // Dispatch lists indexed by [b1.type + 1][b2.type + 1], built as needed
+    private Dispatch[][] dispatchTable = new Dispatch[0][0];
+    private static final int MAX_TABLE_TYPE = 1024;
     
-    public CollisionSystem() { 
+    public CollisionSystem() {
+        this(new GridBroadphase(GameConstants.ARENA_EXTENTS)); 
+    }
+    
+    public CollisionSystem( Broadphase broadphase ) {
+        this.broadphase = broadphase;
     }
  
-    public void addContactListener( ContactListener l ) {
-        listeners.add(l);
+    public Broadphase getBroadphase() {
+        return broadphase;
+    }
+ 
+    /**
+     *  Sets the ForkJoinPool that will be used to run the narrow phase contact
+     *  checks in parallel.  Contact listeners are still notified and contacts 
+     *  are still resolved on the simulation thread in the same order as the
+     *  serial checks.  Set to null (the default) to always run on the simulation 
+     *  thread.
+     */
+    public void setParallelPool( ForkJoinPool pool ) {
+        this.pool = pool;
+    }
+    
+    public ForkJoinPool getParallelPool() {
+        return pool;
+    }
+ 
+    /**
+     *  Sets the number of broadphase pairs below which the narrow phase will 
+     *  be run serially even if a parallel pool has been set.  Defaults to 4096.
+     */   
+    public void setParallelThreshold( int parallelThreshold ) {
+        this.parallelThreshold = parallelThreshold;
     }
     
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+ 
+    /**
+     *  Sets the number of broadphase pairs that a single parallel narrow phase 
+     *  chunk will check.  Defaults to 1024.
+     */   
+    public void setParallelChunkSize( int chunkSize ) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+    
+    public int getParallelChunkSize() {
+        return chunkSize;
+    }
+ 
+    /**
+     *  Adds a listener that will be notified about every contact.
+     */
+    public void addContactListener( ContactListener l ) {
+        addContactListener(ANY_TYPE, ANY_TYPE, l);
+    }
+ 
+    /**
+     *  Adds a listener that is only notified about contacts between bodies
+     *  of the specified ObjectType IDs, ie: ObjectType.getType().  The bodies are
+     *  ordered so that the listener always sees a type1 body as the contact's b1 
+     *  and a type2 body as b2.  Either type can be ANY_TYPE.  Bodies without an
+     *  ObjectType have a type of -1.  Listeners are called in the order that they 
+     *  were registered.  A body whose entity has been removed by a listener is
+     *  treated as having a type of -1 for the rest of the frame, so the rest of
+     *  that contact's listeners, and those of any later contacts with the body, 
+     *  are only the ones that still match.
+     */   
+    public void addContactListener( int type1, int type2, ContactListener l ) {
+        listeners.add(new Registration(type1, type2, l));
+        dispatchTable = new Dispatch[0][0];
+    }
+ 
+    /**
+     *  Removes all registrations of the specified listener.
+     */   
     public void removeContactListener( ContactListener l ) {
-        listeners.remove(l);
+        for( Registration r : listeners.getArray() ) {
+            if( r.listener == l ) {
+                listeners.remove(r);
+            }
+        }
+        dispatchTable = new Dispatch[0][0];
     }
  
     @Override
@@ -90,10 +204,70 @@ public class CollisionSystem extends AbstractGameSystem
     }
 
     protected void fireNewContact( Contact c ) {
-        for( ContactListener l : listeners.getArray() ) {
-            l.newContact(c);
+        int type1 = getLiveType(c.b1);
+        int type2 = getLiveType(c.b2);
+        Dispatch dispatch = getDispatch(type1, type2);
+        int last = -1;
+        for( int i = 0; i < dispatch.size; i++ ) {
+            if( dispatch.order[i] <= last ) {
+                // Already called before the types changed
+                continue;
+            }
+            if( dispatch.swap[i] ) {
+                c.swap();
+                dispatch.listeners[i].newContact(c);
+                c.swap();
+            } else {
+                dispatch.listeners[i].newContact(c);
+            }
+            last = dispatch.order[i];
+            
+            // If the listener removed one of the bodies then the rest of
+            // the listeners are the later ones that match what's left.
+            int t1 = getLiveType(c.b1);
+            int t2 = getLiveType(c.b2);
+            if( t1 != type1 || t2 != type2 ) {
+                type1 = t1;
+                type2 = t2;
+                dispatch = getDispatch(type1, type2);
+                i = -1;
+            }
         }
     }
+ 
+    /**
+     *  Returns the body's type or -1 if its entity has been removed.  Bodies
+     *  stay in the body list until the next frame so this is checked against
+     *  the entity itself.
+     */
+    protected int getLiveType( Body body ) {
+        if( body.type < 0 || ed.getComponent(body.bodyId, Position.class) == null ) {
+            return -1;
+        }
+        return body.type;
+    }
+ 
+    private Dispatch getDispatch( int type1, int type2 ) {
+        int i = type1 + 1;
+        int j = type2 + 1;
+        if( i < 0 || j < 0 || i >= MAX_TABLE_TYPE || j >= MAX_TABLE_TYPE ) {
+            // Not something we want to cache
+            return new Dispatch(type1, type2, listeners.getArray());
+        }
+        if( i >= dispatchTable.length ) {
+            dispatchTable = Arrays.copyOf(dispatchTable, Math.min(MAX_TABLE_TYPE, Math.max(i + 1, dispatchTable.length * 2)));
+        }
+        Dispatch[] row = dispatchTable[i];
+        if( row == null || j >= row.length ) {
+            row = dispatchTable[i] = row == null ? new Dispatch[j + 1] 
+                                                 : Arrays.copyOf(row, Math.max(j + 1, row.length * 2));
+        }
+        Dispatch result = row[j];
+        if( result == null ) {
+            result = row[j] = new Dispatch(type1, type2, listeners.getArray());
+        }
+        return result;
+    }
    
     @Override
     public void beginFrame( SimTime time ) {
@@ -102,7 +276,8 @@ public class CollisionSystem extends AbstractGameSystem
  
     @Override    
     public void addBody( Body body ) {
-        bodies.add(body);    
+        bodies.add(body);
+        broadphase.addBody(body);    
     }
     
     @Override
@@ -111,7 +286,8 @@ public class CollisionSystem extends AbstractGameSystem
  
     @Override
     public void removeBody( Body body ) {
-        bodies.remove(body);    
+        bodies.remove(body);
+        broadphase.removeBody(body);    
     }
 
     @Override
@@ -119,102 +295,348 @@ public class CollisionSystem extends AbstractGameSystem
         
         // Check for collisions
         Body[] array = bodies.getArray();
-        int size = array.length;
-        for( int i = 0; i < size; i++ ) {
-            Body b1 = array[i];
-            for( int j = i + 1; j < size; j++ ) {
-                Body b2 = array[j];
-                
-                Contact contact = checkContact(b1, b2);
-                if( contact == null ) {
-                    continue;
-                }
-                
-                // How much energy is in the contact?
-                double speed1 = b1.velocity.dot(contact.cn);
-                double speed2 = b2.velocity.dot(contact.cn);
-                
-                // It's possible that the object are already separating
-                // if they managed to penetrate really far in a previous frame.
-                if( speed1 < 0 && speed2 > 0 ) {
+        
+        // Figure out how far everything has traveled.  Bodies that went 
+        // farther than their radius could have skipped over something so 
+        // the broadphase includes their whole path.
+        for( Body b : array ) {
+            b.sweep.set(wrap(b.pos.x - b.lastPos.x, arenaSize.x), 0, 
+                        wrap(b.pos.z - b.lastPos.z, arenaSize.z));
+            double distSq = b.sweep.lengthSq();
+            b.fastMover = distSq > b.radius * b.radius;
+            if( b.fastMover ) {
+                b.broadRadius = b.radius + Math.sqrt(distSq);
+            } else {
+                b.broadRadius = b.radius;
+            }
+        }
+        
+        int count = broadphase.findPairs(array);
+        long[] pairs = broadphase.getPairs();
+        
+        // Find all of the real contacts first.  This only depends on the 
+        // body positions, which resolving contacts doesn't change.  The
+        // energy depends on velocities so it must wait for resolution.
+        if( pool != null && count > 0 && count >= parallelThreshold ) {
+            int size = chunkSize;
+            bufferCount = (count + size - 1) / size;
+            ensureBuffers(bufferCount);
+            pool.invoke(new NarrowPhaseTask(array, pairs, count, size, 0, bufferCount));
+        } else {
+            bufferCount = 1;
+            buffers[0].check(array, pairs, 0, count);
+        }
+        
+        for( int b = 0; b < bufferCount; b++ ) {
+            ContactBuffer buffer = buffers[b]; 
+            for( int i = 0; i < buffer.size; i++ ) {
+                resolveContact(buffer.contacts[i]);
+            }
+        }
+        
+        // Don't hang on to bodies that might be removed
+        for( int b = 0; b < bufferCount; b++ ) {
+            buffers[b].clear();
+        }
+    }
+ 
+    private void ensureBuffers( int count ) {
+        if( buffers.length >= count ) {
+            return;
+        }
+        int start = buffers.length;
+        buffers = Arrays.copyOf(buffers, Math.max(count, start * 2));
+        for( int i = start; i < buffers.length; i++ ) {
+            buffers[i] = new ContactBuffer();
+        }
+    }
+ 
+    protected void resolveContact( Contact contact ) {
+        Body b1 = contact.b1;
+        Body b2 = contact.b2;
+        
+        // How much energy is in the contact?
+        double speed1 = b1.velocity.dot(contact.cn);
+        double speed2 = b2.velocity.dot(contact.cn);
+        
+        // It's possible that the object are already separating
+        // if they managed to penetrate really far in a previous frame.
+        if( speed1 < 0 && speed2 > 0 ) {
 //log.info("separating contact");                
-                    continue;
-                }
-                
-                // In a typical collision, speed1 would be positive
-                // and speed2 would be negative, ie: both objects
-                // heading towards each other.  In that case the total
-                // energy is both combined speed2 - speed1.
-                // However, if both objects are moving in the same direction
-                // and one overtakes the other then the speeds will have the
-                // same signs... and we still need the difference.
-                double energy = Math.abs(speed2 - speed1);
-                contact.energy = energy;
+            return;
+        }
+        
+        // In a typical collision, speed1 would be positive
+        // and speed2 would be negative, ie: both objects
+        // heading towards each other.  In that case the total
+        // energy is both combined speed2 - speed1.
+        // However, if both objects are moving in the same direction
+        // and one overtakes the other then the speeds will have the
+        // same signs... and we still need the difference.
+        double energy = Math.abs(speed2 - speed1);
+        contact.energy = energy;
 //log.info("speed1:" + speed1 + "  speed2:" + speed2 + "  energy:" + energy);
 
-                // Notiy the listeners about the contact... this gives
-                // them a chance to adjust contact parameters before
-                // we deal with energy
-                fireNewContact(contact);
-                if( contact.energy == 0 ) {
-                    continue;
-                }
+        // Notiy the listeners about the contact... this gives
+        // them a chance to adjust contact parameters before
+        // we deal with energy
+        fireNewContact(contact);
+        if( contact.energy == 0 ) {
+            return;
+        }
 
-                // We want the collisions to be elastic... if we only
-                // use the exact energy it will only be enough to stop
-                // the objects, not separate them with a bounce.
-                energy *= 1.1;
+        // We want the collisions to be elastic... if we only
+        // use the exact energy it will only be enough to stop
+        // the objects, not separate them with a bounce.
+        energy *= 1.1;
 
-                // Now each side gets some of the energy based on their mass
-                // The less mass, the more energy it gets... which is why
-                // invMass is convenient.  Also, static objects get 0.
-                double totalMass = b1.invMass + b2.invMass;
-                double e1 = energy * b1.invMass / totalMass;
-                double e2 = energy * b2.invMass / totalMass;
+        // Now each side gets some of the energy based on their mass
+        // The less mass, the more energy it gets... which is why
+        // invMass is convenient.  Also, static objects get 0.
+        double totalMass = b1.invMass + b2.invMass;
+        double e1 = energy * b1.invMass / totalMass;
+        double e2 = energy * b2.invMass / totalMass;
  
 //log.info("e1:" + e1 + "  e2:" + e2 + "  cn:" + contact.cn); 
-                // Contact normal always points to b2... so we'll
-                // subtract from b1's velocity and add to b2's the
-                // scaled cn.
-                b1.velocity.subtractLocal(contact.cn.mult(e1));
-                b2.velocity.addLocal(contact.cn.mult(e2));
-            } 
-        } 
-    
+        // Contact normal always points to b2... so we'll
+        // subtract from b1's velocity and add to b2's the
+        // scaled cn.
+        Vec3d cn = contact.cn;
+        b1.velocity.x -= cn.x * e1;
+        b1.velocity.y -= cn.y * e1;
+        b1.velocity.z -= cn.z * e1;
+        b2.velocity.x += cn.x * e2;
+        b2.velocity.y += cn.y * e2;
+        b2.velocity.z += cn.z * e2;
     }
     
-    private Contact checkContact( Body b1, Body b2 ) {
-        if( b1.invMass == 0 && b2.invMass == 0 ) {
-            return null;
+    /**
+     *  Collects the contacts for a range of pairs.
+     */
+    private class ContactBuffer {
+        Contact[] contacts = new Contact[0];
+        int size;
+        
+        public void check( Body[] array, long[] pairs, int start, int end ) {
+            size = 0;
+            for( int i = start; i < end; i++ ) {
+                long pair = pairs[i];
+                Body b1 = array[(int)(pair >>> 32)];
+                Body b2 = array[(int)pair];
+                if( b1.outOfBounds || b2.outOfBounds ) {
+                    // Already on its way out of the world
+                    continue;
+                }
+                if( checkContact(b1, b2, next()) ) {
+                    size++;
+                }
+            }
+        }
+        
+        /**
+         *  Returns the next free contact without claiming it.
+         */
+        private Contact next() {
+            if( size == contacts.length ) {
+                contacts = Arrays.copyOf(contacts, Math.max(16, size * 2));
+                for( int i = size; i < contacts.length; i++ ) {
+                    contacts[i] = new Contact();
+                }
+            }
+            return contacts[size];
+        }
+        
+        public void clear() {
+            for( int i = 0; i < size; i++ ) {
+                contacts[i].set(null, null);
+            }
+            size = 0;
         }
-        double x = Math.abs(b1.pos.x - b2.pos.x);
-        double z = Math.abs(b1.pos.z - b2.pos.z);
-        if( x > arenaSize.x ) {
-            x -= arenaSize.x;
+    }
+ 
+    /**
+     *  Recursively splits a range of narrow phase chunks until there is only
+     *  one left to check directly.
+     */
+    private class NarrowPhaseTask extends RecursiveAction {
+        private final Body[] array;
+        private final long[] pairs;
+        private final int count;
+        private final int size;
+        private final int firstChunk;
+        private final int lastChunk;
+        
+        public NarrowPhaseTask( Body[] array, long[] pairs, int count, int size, int firstChunk, int lastChunk ) {
+            this.array = array;
+            this.pairs = pairs;
+            this.count = count;
+            this.size = size;
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
         }
-        if( z > arenaSize.z ) {
-            z -= arenaSize.z;
+        
+        @Override
+        protected void compute() {
+            if( lastChunk - firstChunk == 1 ) {
+                int start = firstChunk * size;
+                buffers[firstChunk].check(array, pairs, start, Math.min(count, start + size));
+                return;
+            }
+            int mid = (firstChunk + lastChunk) >>> 1;
+            invokeAll(new NarrowPhaseTask(array, pairs, count, size, firstChunk, mid),
+                      new NarrowPhaseTask(array, pairs, count, size, mid, lastChunk));
         }
+    }
+ 
+    private static class Registration {
+        final int type1;
+        final int type2;
+        final ContactListener listener;
+        
+        public Registration( int type1, int type2, ContactListener listener ) {
+            this.type1 = type1;
+            this.type2 = type2;
+            this.listener = listener;
+        }
+        
+        public boolean matches( int t1, int t2 ) {
+            return (type1 == ANY_TYPE || type1 == t1) && (type2 == ANY_TYPE || type2 == t2);
+        }
+    }
+ 
+    /**
+     *  The listeners to call for a particular pair of body types, whether
+     *  the bodies need to be swapped for each one, and each one's index in
+     *  the registration order.
+     */   
+    private static class Dispatch {
+        final ContactListener[] listeners;
+        final boolean[] swap;
+        final int[] order;
+        int size;
+        
+        public Dispatch( int type1, int type2, Registration[] registrations ) {
+            this.listeners = new ContactListener[registrations.length];
+            this.swap = new boolean[registrations.length];
+            this.order = new int[registrations.length];
+            for( int i = 0; i < registrations.length; i++ ) {
+                Registration r = registrations[i];
+                if( r.matches(type1, type2) ) {
+                    order[size] = i;
+                    listeners[size++] = r.listener;
+                } else if( r.matches(type2, type1) ) {
+                    swap[size] = true;
+                    order[size] = i;
+                    listeners[size++] = r.listener;
+                }
+            }
+        }
+    }
+ 
+    /**
+     *  Fills in the contact and returns true if the two bodies are touching.
+     */
+    private boolean checkContact( Body b1, Body b2, Contact c ) {
+        if( b1.invMass == 0 && b2.invMass == 0 ) {
+            return false;
+        }
+        // The arena wraps so the shortest separation may be across 
+        // the edge
+        double x = wrap(b2.pos.x - b1.pos.x, arenaSize.x);
+        double z = wrap(b2.pos.z - b1.pos.z, arenaSize.z);
         double dist = Math.sqrt(x * x + z * z);
         if( dist >= b1.radius + b2.radius ) {
-            return null;
+            if( b1.fastMover || b2.fastMover ) {
+                return checkSweep(b1, b2, x, z, c);
+            }
+            return false;
         } 
         //log.info("contact:" + b1.bodyId + " and:" + b2.bodyId);
-        Contact c = new Contact(b1, b2);
-        c.cn = b2.pos.subtract(b1.pos);
-        c.cn.y = 0; // just in case
-        c.cn.divideLocal(dist);
+        c.set(b1, b2);
+        c.cn.set(x / dist, 0, z / dist);
         c.pen = dist - b1.radius - b2.radius;
+        c.energy = 0;
     
+        double d;
         if( c.pen < 0 ) {       
             // Put the contact point halfway between the bounaries        
-            c.cp = b1.pos.add(c.cn.mult(b1.radius + c.pen * 0.5));
+            d = b1.radius + c.pen * 0.5;
         } else {
             // Put the conact point on b1's surface
-            c.cp = b1.pos.add(c.cn.mult(b1.radius));
+            d = b1.radius;
         }        
+        c.cp.set(b1.pos.x + c.cn.x * d, b1.pos.y + c.cn.y * d, b1.pos.z + c.cn.z * d);
         
-        return c;
+        return true;
+    }
+ 
+    /**
+     *  Checks for the first time during the frame that the bodies touched
+     *  given their sweeps and fills in the contact as of that time.  x and z
+     *  are the wrapped separation at the end of the frame.
+     */
+    private boolean checkSweep( Body b1, Body b2, double x, double z, Contact c ) {
+        // Movement of b2 relative to b1 over the frame.  At u=1 the bodies
+        // are at their last positions and at u=0 they are at their current
+        // positions, separated by (x - dx * u, z - dz * u).
+        double dx = b2.sweep.x - b1.sweep.x;
+        double dz = b2.sweep.z - b1.sweep.z;
+        double r = b1.radius + b2.radius;
+        
+        double a = dx * dx + dz * dz;
+        if( a == 0 ) {
+            return false;
+        }
+        double b = -2 * (x * dx + z * dz);
+        double cc = x * x + z * z - r * r;
+        double disc = b * b - 4 * a * cc;
+        if( disc < 0 ) {
+            return false;
+        }
+        double root = Math.sqrt(disc);
+        double u1 = (-b - root) / (2 * a);
+        double u2 = (-b + root) / (2 * a);
+        
+        // u2 is where they first touch going forward in time.  If that was
+        // before this frame then they were already touching at the start
+        // and have since come apart.
+        double u = u2;
+        if( u < 0 || u > 1 ) {
+            return false;
+        }
+        double hx = x - dx * u;
+        double hz = z - dz * u;
+        double dist = Math.sqrt(hx * hx + hz * hz);
+        if( dist == 0 ) {
+            return false;
+        }
+        
+        // Going forward in time, b2 moves by (dx, dz) relative to b1.  Only
+        // count it if that closes the gap.
+        if( hx * dx + hz * dz >= 0 ) {
+            return false;
+        }
+        
+        c.set(b1, b2);
+        c.cn.set(hx / dist, 0, hz / dist);
+        c.pen = Math.min(0, dist - r);
+        c.energy = 0;
+        
+        // Contact point relative to where b1 was at the time
+        double d = b1.radius + c.pen * 0.5;
+        c.cp.set(b1.pos.x - b1.sweep.x * u + c.cn.x * d, 
+                 b1.pos.y, 
+                 b1.pos.z - b1.sweep.z * u + c.cn.z * d);
+        return true;
+    }
+    
+    private static double wrap( double d, double size ) {
+        if( d > size * 0.5 ) {
+            return d - size;
+        } else if( d < -size * 0.5 ) {
+            return d + size;
+        }
+        return d;
     }
 }
 
@@ -41,7 +41,9 @@ import com.google.common.base.MoreObjects;
 import com.simsilica.mathd.*;
 
 /**
- *
+ *  A contact between two bodies.  The collision system reuses contact 
+ *  instances from frame to frame so a contact is only valid during the 
+ *  ContactListener callback that receives it.
  *
  *  @author    Paul Speed
  */
@@ -49,14 +51,35 @@ public class Contact {
     public Body b1;
     public Body b2;
     public double pen;
-    public Vec3d cp;
-    public Vec3d cn;
+    public final Vec3d cp = new Vec3d();
+    public final Vec3d cn = new Vec3d();
     public double energy;
     
+    public Contact() {
+    }
+    
     public Contact( Body b1, Body b2 ) {
         this.b1 = b1;
         this.b2 = b2;
     }
+ 
+    public void set( Body b1, Body b2 ) {
+        this.b1 = b1;
+        this.b2 = b2;
+    }
+ 
+    /**
+     *  Swaps b1 and b2 and flips the contact normal so that it still
+     *  points at b2.
+     */   
+    public void swap() {
+        Body temp = b1;
+        b1 = b2;
+        b2 = temp;
+        cn.x = -cn.x;
+        cn.y = -cn.y;
+        cn.z = -cn.z;
+    }
     
     @Override
     public String toString() {
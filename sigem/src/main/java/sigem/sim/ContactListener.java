@@ -40,6 +40,13 @@ package sigem.sim;
 /**
  *  Notified about contacts produced by the collision system.
  *
+ *  <p>Contacts, including their cp and cn vectors, are pooled and reused by
+ *  the collision system.  A contact is only valid for the duration of the
+ *  newContact() call.  Listeners that need the contact information later
+ *  must copy the values they need instead of keeping the contact.  Listeners
+ *  may set the contact's energy to 0 to keep the collision system from
+ *  bouncing the bodies apart.</p>
+ *
  *  @author    Paul Speed
  */
 public interface ContactListener {
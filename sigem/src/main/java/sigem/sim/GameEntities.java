@@ -37,6 +37,7 @@
 package sigem.sim;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.slf4j.*;
 
@@ -50,6 +51,22 @@ import sigem.es.*;
 /**
  *  Factory methods for common game entities.
  *
+ *  <p>Entities are spawned through a pool: the entity ID is handed out right
+ *  away but the components are queued and written together in a batch.  
+ *  Spawns made during the physics step, like a large asteroid breaking up
+ *  in a contact callback, are written at the end of that same physics frame
+ *  so that the burst stays out of the middle of the step without adding a
+ *  frame of latency.  Anything queued from elsewhere, including the render 
+ *  thread since the spawn queue is thread safe, is written during this
+ *  system's update().  A per-frame spawn limit spreads very large bursts
+ *  over a few frames.  Decay components are stamped with the step time when
+ *  the spawn is written so that callers never need to read the simulation's
+ *  time.</p>
+ *
+ *  <p>Components that never change are shared between entities of the
+ *  same archetype instead of being recreated for every spawn.  Debris 
+ *  sizes are rounded so that chunks can share their shapes and masses.</p>
+ *
  *  @author    Paul Speed
  */
 public class GameEntities extends AbstractGameSystem {
@@ -58,10 +75,93 @@ public class GameEntities extends AbstractGameSystem {
 
     private EntityData ed;
     private Random rand = new Random(0);
+ 
+    private ConcurrentLinkedQueue<Spawn> pending = new ConcurrentLinkedQueue<>();
+    private int maxSpawnsPerFrame = 256;
+    private int frameBudget;
+    private SimplePhysics physics;
+    private SpawnFlusher flusher = new SpawnFlusher();
+ 
+    // Shared immutable components
+    private Map<String, ObjectType> types = new ConcurrentHashMap<>();
+    private Map<Double, SphereShape> shapes = new ConcurrentHashMap<>();
+    private Map<Double, MassProperties> masses = new ConcurrentHashMap<>();
+    private static final Vec3d ZERO = new Vec3d();
+    private double debrisSizeStep = 0.05;
+ 
+    // Spawn/despawn statistics.  Everything we spawn through the pool 
+    // except full asteroids decays, so a decaying spawn is counted as 
+    // despawned once its Decay runs out, which is when the DecaySystem 
+    // removes it.  Entities that game logic removes early are counted 
+    // then too.  Each batch that shares a Decay is one expiry.
+    private PriorityQueue<Expiry> expiries = new PriorityQueue<>();
+    private Expiry lastExpiry;
+    private long spawnCount;
+    private long decayingCount;
+    private long despawnCount;
+    private int frameSpawns;
+    private int frameDespawns;
+    private double windowStart;
+    private double spawnRate;
+    private double despawnRate;
+    
+    // The last Decay created during a flush so that batches can share it
+    private Decay lastDecay;
+    private long lastDecayTime;
+    private double lastDecayLifetime;
                                        
     public GameEntities( EntityData ed ) {
         this.ed = ed;
     }
+ 
+    /**
+     *  Sets the maximum number of queued entities that will be written
+     *  in a single frame, counting both the update() and end of physics 
+     *  frame batches.  Anything beyond that will be written in the next 
+     *  frame(s).  Defaults to 256.
+     */   
+    public void setMaxSpawnsPerFrame( int maxSpawnsPerFrame ) {
+        this.maxSpawnsPerFrame = maxSpawnsPerFrame;
+    }
+    
+    public int getMaxSpawnsPerFrame() {
+        return maxSpawnsPerFrame;
+    }
+ 
+    /**
+     *  Returns the total number of entities spawned through the pool.
+     */   
+    public long getSpawnCount() {
+        return spawnCount;
+    }
+ 
+    /**
+     *  Returns the total number of decaying entities that have been removed.
+     */   
+    public long getDespawnCount() {
+        return despawnCount;
+    }
+ 
+    /**
+     *  Returns the spawns per second measured over the last full second.
+     */   
+    public double getSpawnRate() {
+        return spawnRate;
+    }
+
+    /**
+     *  Returns the despawns per second measured over the last full second.
+     */   
+    public double getDespawnRate() {
+        return despawnRate;
+    }
+    
+    /**
+     *  Returns the number of spawns that are waiting to be written.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
     
     @Override
     protected void initialize() {
@@ -70,53 +170,211 @@ public class GameEntities extends AbstractGameSystem {
     @Override
     protected void terminate() {
     }
-
-    public EntityId createAsteroid( Vec3d location, Vec3d linVelocity, Vec3d angVelocity, double size ) {
     
-        double mass = size * size * size * 5;
+    @Override
+    public void start() {
+        // Registered here rather than in initialize() so that we come after
+        // the collision system and see the spawns from its contact listeners
+        physics = getSystem(SimplePhysics.class);
+        if( physics != null ) {
+            physics.addPhysicsListener(flusher);
+        }
+    }
     
-        EntityId asteroid = ed.createEntity();
-        ed.setComponents(asteroid,
-            new Position(location),
-            new MassProperties(1/mass),
-            ObjectType.create(ObjectType.TYPE_ASTEROID, ed),
-            new SphereShape(size, new Vec3d()),
-            new Impulse(linVelocity, angVelocity)
-            );    
-            
-        return asteroid;
+    @Override
+    public void update( SimTime time ) {
+        frameBudget = maxSpawnsPerFrame;
+        flushSpawns(time, frameBudget);
+ 
+        Expiry expiry;
+        while( (expiry = expiries.peek()) != null && expiry.endTime <= time.getTime() ) {
+            expiries.poll();
+            frameDespawns += expiry.count;
+            despawnCount += expiry.count;
+        }
+        
+        double seconds = time.getTimeInSeconds() - windowStart;
+        if( seconds >= 1 ) {
+            spawnRate = frameSpawns / seconds;
+            despawnRate = frameDespawns / seconds;
+            frameSpawns = 0;
+            frameDespawns = 0;
+            windowStart = time.getTimeInSeconds();
+            if( log.isDebugEnabled() ) {
+                log.debug(String.format("spawns/sec: %.1f  despawns/sec: %.1f  live decaying: %d", 
+                                        spawnRate, despawnRate, decayingCount - despawnCount));
+            }
+        }
+    }
+    
+    @Override
+    public void stop() {
+        // Don't leave anything half-spawned
+        flushSpawns(getManager().getStepTime(), Integer.MAX_VALUE);
+        if( physics != null ) {
+            physics.removePhysicsListener(flusher);
+            physics = null;
+        }
+    }
+ 
+    /**
+     *  Writes up to max queued spawns to the entity data, filling in the 
+     *  Decay of any that decay.
+     */   
+    protected void flushSpawns( SimTime time, int max ) {
+        Spawn spawn;
+        int count = 0;
+        while( count < max && (spawn = pending.poll()) != null ) {
+            if( spawn.lifetime > 0 ) {
+                // The last slot was reserved for it
+                spawn.components[spawn.components.length - 1] = decay(time, spawn.lifetime);
+                lastExpiry.count++;
+                decayingCount++;
+            }
+            ed.setComponents(spawn.id, spawn.components);
+            count++;
+        }
+        frameSpawns += count;
+        spawnCount += count;
+        frameBudget -= count;
+    }
+ 
+    /**
+     *  Queues an entity with the specified components to be created in
+     *  the next frame and returns its ID.
+     */   
+    public EntityId spawn( EntityComponent... components ) {
+        EntityId result = ed.createEntity();
+        pending.add(new Spawn(result, components, 0));
+        return result;
+    }
+ 
+    /**
+     *  Queues an entity like spawn() that will also get a Decay ending 
+     *  'lifetime' seconds after the entity is actually created.
+     */   
+    public EntityId spawnDecaying( double lifetime, EntityComponent... components ) {
+        EntityId result = ed.createEntity();
+        EntityComponent[] withDecay = Arrays.copyOf(components, components.length + 1);
+        pending.add(new Spawn(result, withDecay, lifetime));
+        return result;
+    }
+ 
+    private Decay decay( SimTime time, double lifetime ) {
+        if( lastDecay == null || lastDecayTime != time.getTime() || lastDecayLifetime != lifetime ) {
+            lastDecay = new Decay(time.getTime(), time.getFutureTime(lifetime));
+            lastDecayTime = time.getTime();
+            lastDecayLifetime = lifetime;
+            lastExpiry = new Expiry(lastDecay.getEndTime());
+            expiries.add(lastExpiry);
+        }
+        return lastDecay;
+    }
+ 
+    /**
+     *  Queues a whole batch of entities at once.  Each element of the list is 
+     *  the set of components for one entity.  The IDs are returned in the
+     *  same order.
+     */   
+    public EntityId[] spawnAll( List<EntityComponent[]> batch ) {
+        EntityId[] result = new EntityId[batch.size()];
+        int i = 0;
+        for( EntityComponent[] components : batch ) {
+            result[i++] = spawn(components);
+        }
+        return result;
+    }
+ 
+    protected ObjectType type( String typeName ) {
+        return types.computeIfAbsent(typeName, name -> ObjectType.create(name, ed));
+    }
+ 
+    protected SphereShape shape( double radius ) {
+        return shapes.computeIfAbsent(radius, r -> new SphereShape(r, ZERO));
+    }
+    
+    protected MassProperties mass( double invMass ) {
+        return masses.computeIfAbsent(invMass, MassProperties::new);
+    }
+    
+    protected MassProperties rockMass( double size ) {
+        return mass(1 / (size * size * size * 5)); 
+    }
+ 
+    /**
+     *  Rounds a chunk size to the debris size step so that chunks can share
+     *  their shapes and masses.  Never rounds down to nothing.
+     */   
+    protected double debrisSize( double size ) {
+        return Math.max(debrisSizeStep, Math.round(size / debrisSizeStep) * debrisSizeStep);
+    }
+
+    public EntityId createAsteroid( Vec3d location, Vec3d linVelocity, Vec3d angVelocity, double size ) {
+        return spawn(new Position(location),
+                     rockMass(size),
+                     type(ObjectType.TYPE_ASTEROID),
+                     shape(size),
+                     new Impulse(linVelocity, angVelocity)
+                     );    
     }
 
     public EntityId createAsteroidChunk( Vec3d location, Vec3d linVelocity, Vec3d angVelocity, double size ) {
  
-        SimTime time = getManager().getStepTime();
-
-        double mass = size * size * size * 5;
-    
-        EntityId asteroid = ed.createEntity();
-        ed.setComponents(asteroid,
-            new Position(location),
-            new MassProperties(1/mass),
-            ObjectType.create(ObjectType.TYPE_ASTEROID_CHUNK, ed),
-            new SphereShape(size, new Vec3d()),
-            new Impulse(linVelocity, angVelocity),
-            new Decay(time.getTime(), time.getFutureTime(2))
-            );    
+        size = debrisSize(size);
+ 
+        return spawnDecaying(2,
+                             new Position(location),
+                             rockMass(size),
+                             type(ObjectType.TYPE_ASTEROID_CHUNK),
+                             shape(size),
+                             new Impulse(linVelocity, angVelocity)
+                             );    
+    }
+ 
+    /**
+     *  Creates 'count' small asteroid chunks flying out from the specified
+     *  location in one batch.
+     */   
+    public EntityId[] createDebris( Vec3d location, int count ) {
+        EntityId[] result = new EntityId[count];
+        ObjectType chunkType = type(ObjectType.TYPE_ASTEROID_CHUNK);
+        for( int i = 0; i < count; i++ ) {
+            double x = rand.nextDouble() * 2 - 1;
+            double z = rand.nextDouble() * 2 - 1;
+            Vec3d dir = new Vec3d(x, 0, z);
+            double size = debrisSize(0.2 + rand.nextDouble() * 0.4);
             
-        return asteroid;
+            result[i] = spawnDecaying(2,
+                                      new Position(location.add(dir)),
+                                      rockMass(size),
+                                      chunkType,
+                                      shape(size),
+                                      new Impulse(dir, new Vec3d(rand.nextDouble() + 1, rand.nextDouble(), 0))
+                                      );
+        }
+        return result;
     }
          
     public EntityId createExplosion( Vec3d location, double size ) {
-        SimTime time = getManager().getStepTime();
-        
-        EntityId result = ed.createEntity();
-        ed.setComponents(result,
-            new Position(location),
-            new SphereShape(size, new Vec3d()),
-            ObjectType.create(ObjectType.TYPE_PLASMA_EXPLOSION, ed),
-            new Decay(time.getTime(), time.getFutureTime(2))
-            );
-        return result;
+        return spawnDecaying(2,
+                             new Position(location),
+                             shape(size),
+                             type(ObjectType.TYPE_PLASMA_EXPLOSION)
+                             );
+    }
+ 
+    /**
+     *  Creates a missile.  This is safe to call from the render thread.
+     */   
+    public EntityId createMissile( EntityId shooter, Vec3d location, Vec3d velocity, double lifetime ) {
+        return spawnDecaying(lifetime,
+                             new Position(location),
+                             mass(1/5.0),
+                             type(ObjectType.TYPE_MISSILE),
+                             shape(0),
+                             new CreatedBy(shooter),
+                             new Impulse(velocity, ZERO)
+                             );        
     }
 
     private static String[] LOOT_TYPES = new String[] {
@@ -131,10 +389,9 @@ public class GameEntities extends AbstractGameSystem {
             return;
         }
 
-        SimTime time = getManager().getStepTime();
+        Vec3d spin = new Vec3d(0, 8, 0);
         
         int count = rand.nextInt(2) + 1;
-log.info("loot count:" + count);        
         for( int i = 0; i < count; i++ ) {
             double x = rand.nextDouble() * 2 - 1;
             double z = rand.nextDouble() * 2 - 1;
@@ -142,19 +399,72 @@ log.info("loot count:" + count);
             Vec3d v = location.add(x, 0, z);
             
             String lootType = LOOT_TYPES[i];
-log.info("creating loot drop:" + lootType);            
-            EntityId loot = ed.createEntity();
-            ed.setComponents(loot,
-                new Position(v),
-                new SphereShape(0, new Vec3d()),
-                new MassProperties(1/5.0),
-                ObjectType.create(lootType, ed),
-                new Impulse(new Vec3d(x, 0, z), new Vec3d(0, 8, 0)),
-                new Decay(time.getTime(), time.getFutureTime(15))
-                ); 
-        }        
-            
+            if( log.isDebugEnabled() ) {
+                log.debug("creating loot drop:" + lootType);
+            }            
+            spawnDecaying(15,
+                          new Position(v),
+                          shape(0),
+                          mass(1/5.0),
+                          type(lootType),
+                          new Impulse(new Vec3d(x, 0, z), spin)
+                          ); 
+        }
+    }
+    
+    /**
+     *  Writes the spawns that were queued during the physics step, ie: by
+     *  contact listeners, once the rest of the physics listeners are done.
+     */
+    private class SpawnFlusher implements PhysicsListener {
+        @Override
+        public void beginFrame( SimTime time ) {
+        }
+ 
+        @Override
+        public void addBody( Body body ) {
+        }
+        
+        @Override
+        public void updateBody( Body body ) {
+        }
+ 
+        @Override
+        public void removeBody( Body body ) {
+        }
+        
+        @Override
+        public void endFrame( SimTime time ) {
+            flushSpawns(time, frameBudget);
+        }
+    }
+ 
+    /**
+     *  The number of decaying spawns that share one Decay end time.
+     */
+    private static class Expiry implements Comparable<Expiry> {
+        final long endTime;
+        int count;
+        
+        public Expiry( long endTime ) {
+            this.endTime = endTime;
+        }
+        
+        @Override
+        public int compareTo( Expiry other ) {
+            return Long.compare(endTime, other.endTime);
+        }
+    }
+    
+    private static class Spawn {
+        final EntityId id;
+        final EntityComponent[] components;
+        final double lifetime;
+        
+        public Spawn( EntityId id, EntityComponent[] components, double lifetime ) {
+            this.id = id;
+            this.components = components;
+            this.lifetime = lifetime;
+        }
     }
 }
-
-
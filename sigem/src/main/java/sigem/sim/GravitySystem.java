@@ -0,0 +1,548 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package sigem.sim;
+
+import java.util.*;
+
+import org.slf4j.*;
+
+import com.simsilica.es.*;
+import com.simsilica.mathd.*;
+import com.simsilica.sim.*;
+
+import sigem.es.*;
+
+/**
+ *  Cheating a little... we'll use a physics listener to add gravity 
+ *  forces from every entity that has a Position and a GravitySource.
+ *
+ *  <p>With only a few sources, each body just sums the pull of every 
+ *  source.  Beyond that, the sources are put in a Barnes-Hut quad tree 
+ *  over the x/z plane each frame and groups of sources that are far enough 
+ *  away are treated as a single source at their center of strength.  Since 
+ *  the strength-weighted approximation only makes sense for a single force
+ *  law, sources with different falloffs get their own trees.  A tree node's
+ *  cutoff is the largest cutoff of its sources.</p>
+ *
+ *  @author    agent
+ */
+public class GravitySystem extends AbstractGameSystem  
+                           implements PhysicsListener {
+
+    static Logger log = LoggerFactory.getLogger(GravitySystem.class);
+
+    private EntityData ed;
+    private SourceContainer sources;
+    
+    private Map<Double, SourceTree> trees = new HashMap<>();
+    private SourceTree[] treeArray = new SourceTree[0];
+    private boolean sourcesChanged;
+
+    // How much of the gravity force is actually applied... we don't
+    // want ships to orbit forever but break free on anything but a
+    // direct approach.  We can tweak how strong that affect is here.
+    // We apply forces asymmetrically, basically.  More when approaching,
+    // less when leaving.
+    private double closingFactor = 3; //1.75;
+    private double leavingFactor = 0.5;
+    // Note: this is not really the solution... but it works for now.
+    // In Star Control you could actually orbit the planets and this
+    // makes that impossible.  I think in Star Control it's probably that
+    // max thrust is effectively higher when flying towards a gravity well.
+    // ie: the engines are allowed to continue adding acceleration even
+    // above a max speed.  We'd need to keep track of the external forces
+    // separately and subtract them from the current velocity to clamp
+    // speed.  Problem for another day.
+ 
+    // At or below this many sources per tree, just sum them directly 
+    private int directThreshold = 32;
+    
+    // Barnes-Hut opening angle.  Nodes whose size / distance is smaller than
+    // this are approximated.  0 is exact.
+    private double theta = 0.5;
+ 
+    private Vec3d force = new Vec3d();
+    private Vec3d pull = new Vec3d();
+
+    public GravitySystem() { 
+    }
+ 
+    /**
+     *  Sets the number of sources with the same falloff at or below which
+     *  their pull is summed directly instead of with a tree.  Defaults to 32.
+     */
+    public void setDirectThreshold( int directThreshold ) {
+        this.directThreshold = directThreshold;
+    }
+    
+    public int getDirectThreshold() {
+        return directThreshold;
+    }
+ 
+    /**
+     *  Sets the Barnes-Hut accuracy parameter.  Smaller is more accurate
+     *  but slower.  Defaults to 0.5.
+     */   
+    public void setTheta( double theta ) {
+        this.theta = theta;
+    }
+    
+    public double getTheta() {
+        return theta;
+    }
+ 
+    @Override
+    protected void initialize() {
+        this.ed = getSystem(EntityData.class);
+        getSystem(SimplePhysics.class).addPhysicsListener(this);
+    }
+
+    @Override
+    protected void terminate() {
+        getSystem(SimplePhysics.class).removePhysicsListener(this);
+    }
+ 
+    @Override
+    public void start() {
+        sources = new SourceContainer(ed);
+        sources.start();
+        sourcesChanged = true;
+    }
+
+    @Override
+    public void stop() {
+        sources.stop();
+        sources = null;
+    }
+
+    @Override
+    public void update( SimTime time ) {
+        if( sources.update() ) {
+            sourcesChanged = true;
+        }
+    }
+
+    @Override
+    public void beginFrame( SimTime time ) {
+        if( !sourcesChanged ) {
+            return;
+        }
+        sourcesChanged = false;
+        
+        // Regroup the sources by falloff
+        for( SourceTree tree : treeArray ) {
+            tree.clear();
+        }
+        for( Source source : sources.getArray() ) {
+            SourceTree tree = trees.get(source.falloff);
+            if( tree == null ) {
+                tree = new SourceTree(source.falloff);
+                trees.put(source.falloff, tree);
+            }
+            tree.add(source);
+        }
+        trees.values().removeIf(SourceTree::isEmpty);
+        treeArray = trees.values().toArray(new SourceTree[trees.size()]);
+        for( SourceTree tree : treeArray ) {
+            tree.build(directThreshold);
+        }
+    }
+ 
+    @Override
+    public void addBody( Body body ) {
+    }
+    
+    @Override
+    public void updateBody( Body body ) {
+    
+        if( body.invMass == 0 ) {
+            return;
+        }
+        
+        // The body might be a gravity source itself
+        Source self = sources.getObject(body.bodyId);
+        
+        // The pull is summed separately so that every source sees the same
+        // velocity when deciding if the body is closing on it.  Otherwise
+        // the result would depend on the order the sources are visited.
+        pull.set(0, 0, 0);
+        for( SourceTree tree : treeArray ) {
+            tree.apply(body, self);
+        }
+        body.velocity.addLocal(pull);
+    }
+ 
+    @Override
+    public void removeBody( Body body ) {
+    }
+    
+    @Override
+    public void endFrame( SimTime time ) {
+    }
+ 
+    /**
+     *  Adds the pull of a source (or group of sources) with the 
+     *  specified strength, falloff, and cutoff at x, z on the body to
+     *  the current pull.
+     */   
+    private void applyPull( Body body, double x, double z, double strength, 
+                            double falloff, double cutoff ) {
+        
+        // Calculate the force vector... points towards the
+        // source.
+        force.set(x - body.pos.x, 0, z - body.pos.z);
+        double distanceSq = force.lengthSq();
+        if( distanceSq < 0.001 || distanceSq > cutoff * cutoff ) {
+            return;
+        }
+
+        // Are we heading toward the well or away?
+        double closing = body.velocity.dot(force);
+        
+        // Fall-off strength/distance^falloff with the direction
+        // vector still needing to be normalized
+        double distance = Math.sqrt(distanceSq);
+        force.multLocal(strength / (Math.pow(distance, falloff) * distance));
+        
+        if( closing > 0 ) {
+            // We're heading towards it
+            force.multLocal(closingFactor);
+        } else {
+            // heading away
+            force.multLocal(leavingFactor);
+        }
+        pull.addLocal(force);
+    }
+ 
+    /**
+     *  A gravity source entity.
+     */
+    private class Source {
+        EntityId id;
+        double x;
+        double z;
+        double strength;
+        double falloff;
+        double cutoff;
+        
+        public Source( EntityId id ) {
+            this.id = id;
+        }
+        
+        public void update( Entity e ) {
+            Vec3d loc = e.get(Position.class).getLocation();
+            GravitySource gs = e.get(GravitySource.class);
+            this.x = loc.x;
+            this.z = loc.z;
+            this.strength = gs.getStrength();
+            this.falloff = gs.getFalloff();
+            this.cutoff = gs.getCutoff();
+        }
+    }
+ 
+    /**
+     *  The sources that share a falloff and, when there are enough of them,
+     *  a Barnes-Hut quad tree over them.  The nodes are kept in flat arrays
+     *  that are reused from build to build.
+     */
+    private class SourceTree {
+        final double falloff;
+        Source[] items = new Source[16];
+        int size;
+        
+        boolean useTree;
+        int nodeCount;
+        double[] minX = new double[0];
+        double[] minZ = new double[0];
+        double[] nodeSize = new double[0];
+        double[] comX = new double[0];
+        double[] comZ = new double[0];
+        double[] strength = new double[0];
+        double[] cutoff = new double[0];
+        int[] firstChild = new int[0];
+        int[] childCount = new int[0];
+        int[] first = new int[0];
+        int[] last = new int[0];
+        int[] stack = new int[64];
+        
+        public SourceTree( double falloff ) {
+            this.falloff = falloff;
+        }
+        
+        public boolean isEmpty() {
+            return size == 0;
+        }
+        
+        public void clear() {
+            Arrays.fill(items, 0, size, null);
+            size = 0;
+        }
+        
+        public void add( Source source ) {
+            if( size == items.length ) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = source;
+        }
+        
+        public void build( int directThreshold ) {
+            useTree = size > directThreshold;
+            nodeCount = 0;
+            if( !useTree ) {
+                return;
+            }
+            double x1 = Double.POSITIVE_INFINITY;
+            double z1 = Double.POSITIVE_INFINITY;
+            double x2 = Double.NEGATIVE_INFINITY;
+            double z2 = Double.NEGATIVE_INFINITY;
+            for( int i = 0; i < size; i++ ) {
+                x1 = Math.min(x1, items[i].x);
+                z1 = Math.min(z1, items[i].z);
+                x2 = Math.max(x2, items[i].x);
+                z2 = Math.max(z2, items[i].z);
+            }
+            double extent = Math.max(Math.max(x2 - x1, z2 - z1), 0.001);
+            buildNode(allocNode(), x1, z1, extent, 0, size, 0);
+        }
+ 
+        /**
+         *  Fills in the node for the items in [start, end) within the specified 
+         *  square.  The children of a node are always allocated consecutively.
+         */       
+        private void buildNode( int node, double x, double z, double extent, 
+                                int start, int end, int depth ) {
+            minX[node] = x;
+            minZ[node] = z;
+            nodeSize[node] = extent;
+            first[node] = start;
+            last[node] = end;
+            firstChild[node] = -1;
+            childCount[node] = 0;
+            
+            // Center of strength and largest cutoff
+            double total = 0;
+            double cx = 0;
+            double cz = 0;
+            double maxCutoff = 0;
+            for( int i = start; i < end; i++ ) {
+                Source s = items[i];
+                total += s.strength;
+                cx += s.x * s.strength;
+                cz += s.z * s.strength;
+                maxCutoff = Math.max(maxCutoff, s.cutoff);
+            }
+            strength[node] = total;
+            comX[node] = total == 0 ? x + extent * 0.5 : cx / total;
+            comZ[node] = total == 0 ? z + extent * 0.5 : cz / total;
+            cutoff[node] = maxCutoff;
+            
+            // Small or very deep nodes are leaves that are summed directly.  
+            // The depth limit keeps sources that are on top of each other from 
+            // splitting forever.
+            if( end - start <= 4 || depth >= 24 ) {
+                return;
+            }
+            
+            // Partition the items into quadrants: x low/high then z low/high
+            double half = extent * 0.5;
+            double midX = x + half;
+            double midZ = z + half;
+            int xSplit = partition(start, end, midX, true);
+            int q1 = partition(start, xSplit, midZ, false);
+            int q2 = partition(xSplit, end, midZ, false);
+            
+            int[] bounds = { start, q1, xSplit, q2, end };
+            double[] qx = { x, x, midX, midX };
+            double[] qz = { z, midZ, z, midZ };
+            
+            // Reserve the children first so that they are consecutive
+            int count = 0;
+            for( int q = 0; q < 4; q++ ) {
+                if( bounds[q + 1] > bounds[q] ) {
+                    count++;
+                }
+            }
+            int child = nodeCount;
+            firstChild[node] = child;
+            childCount[node] = count;
+            nodeCount += count;
+            ensureNodes(nodeCount);
+            
+            for( int q = 0; q < 4; q++ ) {
+                if( bounds[q + 1] > bounds[q] ) {
+                    buildNode(child++, qx[q], qz[q], half, bounds[q], bounds[q + 1], depth + 1);
+                }
+            }
+        }
+        
+        private int partition( int start, int end, double split, boolean xAxis ) {
+            int i = start;
+            int j = end - 1;
+            while( i <= j ) {
+                double v = xAxis ? items[i].x : items[i].z;
+                if( v < split ) {
+                    i++;
+                } else {
+                    Source temp = items[i];
+                    items[i] = items[j];
+                    items[j] = temp;
+                    j--;
+                }
+            }
+            return i;
+        }
+        
+        private int allocNode() {
+            ensureNodes(nodeCount + 1);
+            return nodeCount++;
+        }
+        
+        private void ensureNodes( int count ) {
+            if( minX.length >= count ) {
+                return;
+            }
+            int capacity = Math.max(count, minX.length * 2);
+            minX = Arrays.copyOf(minX, capacity);
+            minZ = Arrays.copyOf(minZ, capacity);
+            nodeSize = Arrays.copyOf(nodeSize, capacity);
+            comX = Arrays.copyOf(comX, capacity);
+            comZ = Arrays.copyOf(comZ, capacity);
+            strength = Arrays.copyOf(strength, capacity);
+            cutoff = Arrays.copyOf(cutoff, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            childCount = Arrays.copyOf(childCount, capacity);
+            first = Arrays.copyOf(first, capacity);
+            last = Arrays.copyOf(last, capacity);
+        }
+        
+        public void apply( Body body, Source self ) {
+            if( !useTree ) {
+                applyDirect(body, 0, size);
+                return;
+            }
+            if( self != null && self.falloff != falloff ) {
+                // Not one of ours
+                self = null;
+            }
+            
+            double px = body.pos.x;
+            double pz = body.pos.z;
+            int top = 0;
+            stack[top++] = 0;
+            while( top > 0 ) {
+                int node = stack[--top];
+                
+                // Skip nodes that are entirely out of range
+                double dx = Math.max(0, Math.max(minX[node] - px, px - (minX[node] + nodeSize[node])));
+                double dz = Math.max(0, Math.max(minZ[node] - pz, pz - (minZ[node] + nodeSize[node])));
+                if( dx * dx + dz * dz > cutoff[node] * cutoff[node] ) {
+                    continue;
+                }
+                
+                if( firstChild[node] < 0 ) {
+                    applyDirect(body, first[node], last[node]);
+                    continue;
+                }
+                
+                // A node that contains the body's own source can't be approximated
+                // or the body would pull on itself.  Its leaf will skip it.
+                double cx = comX[node] - px;
+                double cz = comZ[node] - pz;
+                double distSq = cx * cx + cz * cz;
+                if( (self == null || !contains(node, self.x, self.z))
+                    && nodeSize[node] * nodeSize[node] < theta * theta * distSq ) {
+                    applyPull(body, comX[node], comZ[node], strength[node], falloff, cutoff[node]);
+                    continue;
+                }
+                
+                if( top + childCount[node] > stack.length ) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                for( int i = 0; i < childCount[node]; i++ ) {
+                    stack[top++] = firstChild[node] + i;
+                }
+            }
+        }
+        
+        private boolean contains( int node, double x, double z ) {
+            return x >= minX[node] && x <= minX[node] + nodeSize[node]
+                && z >= minZ[node] && z <= minZ[node] + nodeSize[node];
+        }
+        
+        private void applyDirect( Body body, int start, int end ) {
+            for( int i = start; i < end; i++ ) {
+                Source s = items[i];
+                if( s.id.equals(body.bodyId) ) {
+                    // Don't pull on ourselves
+                    continue;
+                }
+                applyPull(body, s.x, s.z, s.strength, s.falloff, s.cutoff);
+            }
+        }
+    }
+ 
+    /**
+     *  Keeps track of the gravity source entities.
+     */
+    private class SourceContainer extends EntityContainer<Source> {
+ 
+        public SourceContainer( EntityData ed ) {
+            super(ed, Position.class, GravitySource.class);
+        }
+        
+        @Override     
+        protected Source[] getArray() {
+            return super.getArray();
+        }
+    
+        @Override     
+        protected Source addObject( Entity e ) {
+            Source result = new Source(e.getId());
+            result.update(e);
+            return result;
+        }
+    
+        @Override     
+        protected void updateObject( Source object, Entity e ) {
+            object.update(e);
+        }
+    
+        @Override     
+        protected void removeObject( Source object, Entity e ) {
+        }                   
+    }
+}
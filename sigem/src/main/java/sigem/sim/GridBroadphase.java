@@ -0,0 +1,186 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package sigem.sim;
+
+import java.util.Arrays;
+
+import com.simsilica.mathd.*;
+
+/**
+ *  A uniform grid broadphase over the x/z plane of a wrapping arena.  
+ *  Each frame the bodies are hashed into cells at least as wide as the 
+ *  largest body's diameter so that overlapping bodies can only be in the same
+ *  or neighboring cells.  Cells at the arena edges neighbor the cells on the
+ *  opposite side.  This works well when the bodies are spread out but
+ *  degrades when many bodies cluster into the same few cells.
+ *
+ *  @author    agent
+ */
+public class GridBroadphase implements Broadphase {
+
+    private Vec3d arenaSize;
+    
+    private int xCells;
+    private int zCells;
+    private double xCellSize;
+    private double zCellSize;
+    private int[] heads = new int[0];
+    private int[] next = new int[0];
+    private int[] neighbors = new int[9];
+    
+    private long[] pairs = new long[256];
+    private int pairCount;
+    
+    public GridBroadphase( Vec3d arenaExtents ) {
+        this.arenaSize = arenaExtents.mult(2);
+    }
+ 
+    @Override
+    public void addBody( Body body ) {
+    }
+    
+    @Override
+    public void removeBody( Body body ) {
+    }
+ 
+    @Override
+    public int findPairs( Body[] bodies ) {
+        int size = bodies.length;
+        pairCount = 0;
+        if( size < 2 ) {
+            return 0;
+        }
+        
+        double maxRadius = 0;
+        for( Body b : bodies ) {
+            maxRadius = Math.max(maxRadius, b.broadRadius);
+        }
+        
+        // Cells must evenly divide the arena so that the wrap lines up.  
+        // There is also no point in having many more cells than bodies
+        // when the bodies are very small.
+        double minCellSize = Math.sqrt(arenaSize.x * arenaSize.z / (size * 2));
+        double cellSize = Math.max(maxRadius * 2, minCellSize);
+        xCells = Math.max(1, (int)(arenaSize.x / cellSize));
+        zCells = Math.max(1, (int)(arenaSize.z / cellSize));
+        xCellSize = arenaSize.x / xCells;
+        zCellSize = arenaSize.z / zCells;
+        
+        int cellCount = xCells * zCells;
+        if( heads.length < cellCount ) {
+            heads = new int[cellCount];
+        }
+        Arrays.fill(heads, 0, cellCount, -1);
+        if( next.length < size ) {
+            next = new int[size];
+        }
+        
+        // Insert in reverse so that each cell's list is in increasing index order
+        for( int i = size - 1; i >= 0; i-- ) {
+            int cell = cellIndex(cellX(bodies[i].pos.x), cellZ(bodies[i].pos.z));
+            next[i] = heads[cell];
+            heads[cell] = i;
+        }
+        
+        for( int i = 0; i < size; i++ ) {
+            int cx = cellX(bodies[i].pos.x);
+            int cz = cellZ(bodies[i].pos.z);
+            int count = findNeighbors(cx, cz);
+            for( int n = 0; n < count; n++ ) {
+                for( int j = heads[neighbors[n]]; j >= 0; j = next[j] ) {
+                    if( j > i ) {
+                        addPair(i, j);
+                    }
+                }
+            }
+        }
+        
+        Arrays.sort(pairs, 0, pairCount);
+        return pairCount;
+    }
+ 
+    @Override
+    public long[] getPairs() {
+        return pairs;
+    }
+ 
+    private int cellX( double x ) {
+        return Math.floorMod((int)Math.floor((x + arenaSize.x * 0.5) / xCellSize), xCells);
+    }
+    
+    private int cellZ( double z ) {
+        return Math.floorMod((int)Math.floor((z + arenaSize.z * 0.5) / zCellSize), zCells);
+    }
+    
+    private int cellIndex( int x, int z ) {
+        return z * xCells + x;
+    }
+ 
+    /**
+     *  Fills in the unique wrapped cell indexes around the specified cell.  
+     *  Small grids can wrap back onto the same cells so duplicates have to
+     *  be skipped.
+     */   
+    private int findNeighbors( int cx, int cz ) {
+        int count = 0;
+        for( int z = -1; z <= 1; z++ ) {
+            int nz = Math.floorMod(cz + z, zCells);
+            for( int x = -1; x <= 1; x++ ) {
+                int nx = Math.floorMod(cx + x, xCells);
+                int cell = cellIndex(nx, nz);
+                boolean found = false;
+                for( int i = 0; i < count; i++ ) {
+                    if( neighbors[i] == cell ) {
+                        found = true;
+                        break;
+                    }
+                }
+                if( !found ) {
+                    neighbors[count++] = cell;
+                }
+            }
+        }
+        return count;
+    }
+    
+    private void addPair( int i, int j ) {
+        if( pairCount == pairs.length ) {
+            pairs = Arrays.copyOf(pairs, pairCount * 2);
+        }
+        pairs[pairCount++] = ((long)i << 32) | j;
+    }
+}
@@ -36,7 +36,6 @@
 
 package sigem.sim;
 
-import java.util.Objects;
 import java.util.Random;
 
 import org.slf4j.*;
@@ -61,6 +60,8 @@ public class MissileHitListener extends AbstractGameSystem
     private EntityData ed;
     private GameEntities gameEntities;
     private Random rand = new Random(0);
+    
+    private int missileType;
                                  
     public MissileHitListener() {
     }
@@ -70,7 +71,8 @@ public class MissileHitListener extends AbstractGameSystem
         this.ed = getSystem(EntityData.class, true);
         this.gameEntities = getSystem(GameEntities.class, true);
         
-        getSystem(CollisionSystem.class).addContactListener(this);
+        this.missileType = ObjectType.create(ObjectType.TYPE_MISSILE, ed).getType();
+        getSystem(CollisionSystem.class).addContactListener(missileType, CollisionSystem.ANY_TYPE, this);
     }
 
     @Override
@@ -85,28 +87,14 @@ public class MissileHitListener extends AbstractGameSystem
             // An early listener already said this wasn't a real contact
             return;
         }
-    
-        ObjectType type1 = ed.getComponent(c.b1.bodyId, ObjectType.class);
-        ObjectType type2 = ed.getComponent(c.b2.bodyId, ObjectType.class);
-        
-        // Entities may have already been removed
-        String t1 = type1 == null ? null : type1.getTypeName(ed);
-        String t2 = type2 == null ? null : type2.getTypeName(ed);  
  
-        if( Objects.equals(t1, t2) ) {
-            // Missiles or not, we don't care if they are the same... even
-            // missiles can pass each other by.
+        // The collision system always gives us the missile as b1
+        if( c.b2.type == missileType ) {
+            // Missiles can pass each other by.
             return;
         }
         
-        if( ObjectType.TYPE_MISSILE.equals(t1) ) {
-            // Blow up b2
-            missileHit(c.b1, c);
-        } else if( ObjectType.TYPE_MISSILE.equals(t2) ) {
-            // Blow up b1
-            missileHit(c.b2, c);
-        } 
-        
+        missileHit(c.b1, c);
     }
     
     protected void missileHit( Body missile, Contact contact ) {
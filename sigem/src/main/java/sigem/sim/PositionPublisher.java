@@ -36,6 +36,8 @@
 
 package sigem.sim;
 
+import java.util.*;
+
 import com.simsilica.es.*;
 import com.simsilica.mathd.*;
 import com.simsilica.sim.*;
@@ -46,6 +48,12 @@ import sigem.es.Position;
 /**
  *  Publishes physics body positions to a Position component.
  *
+ *  <p>A body's Position is only rewritten when it has moved or turned
+ *  more than the publish thresholds since the last time it was written. 
+ *  Static and slow moving bodies therefore don't generate entity change
+ *  events every frame.  The changed positions are collected during the 
+ *  frame and all written together at the end of the frame.</p>
+ *
  *  @author    Paul Speed
  */
 public class PositionPublisher extends AbstractGameSystem  
@@ -54,9 +62,57 @@ public class PositionPublisher extends AbstractGameSystem
     private EntityData ed;
     private SimTime time;
     
+    private double positionThreshold = 0.01;
+    private double rotationThreshold = 0.001;
+    
+    private Map<Body, Position> published = new IdentityHashMap<>();
+    
+    // The writes for the current frame
+    private EntityId[] pendingIds = new EntityId[64];
+    private Position[] pendingPositions = new Position[64];
+    private int pendingCount;
+    
+    private volatile long writeCount;
+    private volatile long skipCount;
+    private long frameSkips;
+    
     public PositionPublisher() { 
     }
  
+    /**
+     *  Sets the distance a body must move and the amount that any of its
+     *  orientation's quaternion components must change before its Position
+     *  component is rewritten.  Negative thresholds write every body every 
+     *  frame.  Defaults to 0.01 and 0.001.
+     */
+    public void setPublishThresholds( double positionThreshold, double rotationThreshold ) {
+        this.positionThreshold = positionThreshold;
+        this.rotationThreshold = rotationThreshold;
+    }
+    
+    public double getPositionThreshold() {
+        return positionThreshold;
+    }
+    
+    public double getRotationThreshold() {
+        return rotationThreshold;
+    }
+ 
+    /**
+     *  Returns the total number of Position components written.
+     */   
+    public long getWriteCount() {
+        return writeCount;
+    }
+    
+    /**
+     *  Returns the total number of Position writes that were avoided because
+     *  the body hadn't changed enough.
+     */
+    public long getSkipCount() {
+        return skipCount;
+    }
+ 
     @Override
     protected void initialize() {
         this.ed = getSystem(EntityData.class);
@@ -80,18 +136,58 @@ public class PositionPublisher extends AbstractGameSystem
     
     @Override
     public void updateBody( Body body ) {
-        Position pos = new Position(body.pos, body.orientation);
-        ed.setComponent(body.bodyId, pos);
+        Position last = published.get(body);
+        if( last != null && !hasChanged(last, body) ) {
+            frameSkips++;
+            return;
+        }
+        
+        // The component must get its own copies or it would change along
+        // with the body
+        Position pos = new Position(body.pos.clone(), body.orientation.clone());
+        published.put(body, pos);
+        
+        if( pendingCount == pendingIds.length ) {
+            pendingIds = Arrays.copyOf(pendingIds, pendingCount * 2);
+            pendingPositions = Arrays.copyOf(pendingPositions, pendingCount * 2);
+        }
+        pendingIds[pendingCount] = body.bodyId;
+        pendingPositions[pendingCount] = pos;
+        pendingCount++;
     }
  
     @Override
     public void removeBody( Body body ) {
+        published.remove(body);
         ed.removeComponent(body.bodyId, Position.class);
     }
 
     @Override
     public void endFrame( SimTime time ) {
+        for( int i = 0; i < pendingCount; i++ ) {
+            ed.setComponent(pendingIds[i], pendingPositions[i]);
+            pendingIds[i] = null;
+            pendingPositions[i] = null;
+        }
+        writeCount += pendingCount;
+        skipCount += frameSkips;
+        pendingCount = 0;
+        frameSkips = 0;
+    }
+    
+    private boolean hasChanged( Position last, Body body ) {
+        Vec3d loc = last.getLocation();
+        double x = body.pos.x - loc.x;
+        double y = body.pos.y - loc.y;
+        double z = body.pos.z - loc.z;
+        if( x * x + y * y + z * z > positionThreshold * positionThreshold 
+            || positionThreshold < 0 ) {
+            return true;
+        }
+        Quatd facing = last.getFacing();
+        return Math.abs(body.orientation.x - facing.x) > rotationThreshold
+            || Math.abs(body.orientation.y - facing.y) > rotationThreshold
+            || Math.abs(body.orientation.z - facing.z) > rotationThreshold
+            || Math.abs(body.orientation.w - facing.w) > rotationThreshold;
     }
 }
-
-
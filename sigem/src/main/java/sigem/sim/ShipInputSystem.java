@@ -41,7 +41,6 @@ import java.util.*;
 import org.slf4j.*;
 
 import com.simsilica.es.*;
-import com.simsilica.es.common.Decay;
 import com.simsilica.mathd.*;
 import com.simsilica.sim.*;
 
@@ -62,9 +61,12 @@ public class ShipInputSystem extends AbstractGameSystem {
     
     private ShipContainer ships;
     
-    private double nextPuff = 0;
+    // The exhaust puffs themselves are spawned view-side from 
+    // the ship's ThrustEmitter.
     //private double puffInterval = 0.05; //0.2; 
     private double puffInterval = 0.0125; //0.2; 
+    private double puffOffset = 2;
+    private double puffLifetime = 2.5;
         
     public ShipInputSystem() {
     }
@@ -100,29 +102,27 @@ public class ShipInputSystem extends AbstractGameSystem {
     @Override
     public void update( SimTime time ) {
         ships.update();
-        
-        // Could have done this with a separate system but
-        // it was convenient to do it here.
-        double t = time.getTimeInSeconds(); 
-        if( t > nextPuff ) {
-            nextPuff = t + puffInterval;
-            
-            for( ShipDriver ship : ships.getArray() ) {
-                if( ship.getThrust().z <= 0.25 ) {
-                    continue;
-                }
-                // Else the thrusters are on and we can puff
-                Body body = ship.getBody();
-                // Make it appear 2 units behind the ship
-                Vec3d loc = body.pos.subtract(body.orientation.mult(Vec3d.UNIT_Z.mult(2)));
-                EntityId puff = ed.createEntity();
-                ed.setComponents(puff,
-                    new Position(loc),
-                    ObjectType.create("thrust", ed),
-                    new Decay(time.getTime(), time.getFutureTime(2.5))
-                    );
-            } 
-        } 
+    }
+ 
+    /**
+     *  Turns the ship's thrust emitter on or off when its thrust crosses
+     *  the puff threshold.  Could have done this with a separate system but
+     *  it was convenient to do it here.
+     */   
+    protected void updateEmitter( Entity e, ShipDriver driver ) {
+        boolean thrusting = driver.getThrust().z > 0.25;
+        ThrustEmitter emitter = ed.getComponent(e.getId(), ThrustEmitter.class);
+        if( emitter == null ) {
+            if( !thrusting ) {
+                return;
+            }
+            emitter = new ThrustEmitter(true, puffInterval, puffOffset, puffLifetime);
+        } else if( emitter.isActive() == thrusting ) {
+            return;
+        } else {
+            emitter = emitter.changeActive(thrusting);
+        }
+        ed.setComponent(e.getId(), emitter);
     }
     
     private class ShipContainer extends EntityContainer<ShipDriver> {
@@ -151,6 +151,7 @@ public class ShipInputSystem extends AbstractGameSystem {
                 log.trace("updateObject(" + e + ")");
             }
             object.applyControlInput(e.get(ShipInput.class));
+            updateEmitter(e, object);
         }
         
         @Override       
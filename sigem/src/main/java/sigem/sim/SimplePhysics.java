@@ -69,6 +69,16 @@ public class SimplePhysics extends AbstractGameSystem {
     private ConcurrentLinkedQueue<Body> toRemove = new ConcurrentLinkedQueue<>();
  
     private SafeArrayList<PhysicsListener> listeners = new SafeArrayList<>(PhysicsListener.class);
+ 
+    // Optional parallel execution of the driver and integration passes.
+    // Listeners are always notified from the simulation thread.
+    private ForkJoinPool pool;
+    private int parallelThreshold = 2048;
+    private int chunkSize = 512;
+    
+    // Optional world boundaries applied right after integration
+    private volatile BoundaryPolicy boundaryPolicy;
+    private ConcurrentLinkedQueue<Body> outOfBounds = new ConcurrentLinkedQueue<>();
     
     public SimplePhysics() {
     }
@@ -86,6 +96,61 @@ public class SimplePhysics extends AbstractGameSystem {
         listeners.remove(l);
     }
  
+    /**
+     *  Sets the ForkJoinPool that will be used to run the control driver
+     *  and integration passes in parallel.  Each body's driver update and
+     *  integration is independent of the other bodies so the body array
+     *  is split into chunks across the pool.  Physics listeners are still
+     *  notified from the simulation thread in the normal beginFrame(),
+     *  updateBody(), endFrame() order.  Set to null (the default) to always
+     *  run on the simulation thread.
+     */
+    public void setParallelPool( ForkJoinPool pool ) {
+        this.pool = pool;
+    }
+    
+    public ForkJoinPool getParallelPool() {
+        return pool;
+    }
+ 
+    /**
+     *  Sets the number of bodies below which the passes will be run serially
+     *  even if a parallel pool has been set.  For small body counts the task 
+     *  overhead is more than the integration itself.  Defaults to 2048.
+     */   
+    public void setParallelThreshold( int parallelThreshold ) {
+        this.parallelThreshold = parallelThreshold;
+    }
+    
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+ 
+    /**
+     *  Sets the maximum number of bodies that a single parallel task
+     *  will process before splitting.  Defaults to 512.
+     */   
+    public void setParallelChunkSize( int chunkSize ) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+    
+    public int getParallelChunkSize() {
+        return chunkSize;
+    }
+ 
+    /**
+     *  Sets the policy that will be applied to each body after it has been
+     *  integrated.  Bodies that the policy rejects will have their entities
+     *  removed.  Set to null (the default) for no boundaries.
+     */
+    public void setBoundaryPolicy( BoundaryPolicy boundaryPolicy ) {
+        this.boundaryPolicy = boundaryPolicy;
+    }
+    
+    public BoundaryPolicy getBoundaryPolicy() {
+        return boundaryPolicy;
+    }
+ 
     public Body getBody( EntityId entityId ) {
         return index.get(entityId);
     }
@@ -115,8 +180,13 @@ public class SimplePhysics extends AbstractGameSystem {
                 }
                 result = new Body(entityId);
                 result.radius = radius;
+                result.broadRadius = radius;
                 result.invMass = invMass;
                 
+                // Cache the type for contact dispatch
+                ObjectType type = ed.getComponent(entityId, ObjectType.class);
+                result.type = type == null ? -1 : type.getType();
+                
                 // Hookup the driver if it has one waiting
                 result.driver = driverIndex.get(entityId);
                 if( result.driver != null ) {
@@ -190,6 +260,47 @@ public class SimplePhysics extends AbstractGameSystem {
         bodies = null;
     }
 
+    /**
+     *  Applies the control drivers to the bodies in the range [start, end).
+     */
+    protected void applyDrivers( Body[] array, int start, int end, double tpf ) {
+        for( int i = start; i < end; i++ ) {
+            Body b = array[i];
+            if( b.driver != null ) {
+                b.driver.update(tpf, b);
+            }
+        }
+    }
+
+    /**
+     *  Integrates and applies the boundary policy to the bodies in the 
+     *  range [start, end).
+     */
+    protected void integrate( Body[] array, int start, int end, double tpf ) {
+        BoundaryPolicy policy = boundaryPolicy;
+        for( int i = start; i < end; i++ ) {
+            Body b = array[i];
+            b.integrate(tpf);
+            if( policy != null && !policy.apply(b) ) {
+                b.outOfBounds = true;
+                outOfBounds.add(b);
+            }
+        }
+    }
+
+    /**
+     *  Runs one pass over all of the bodies, splitting it across the 
+     *  pool when there are enough of them.  Every driver sees the same 
+     *  pre-integration state this way, parallel or not.
+     */
+    private void runPass( Pass pass, Body[] array, double tpf ) {
+        if( pool != null && array.length >= parallelThreshold ) {
+            pool.invoke(new StepTask(pass, array, 0, array.length, tpf));
+        } else {
+            pass.run(this, array, 0, array.length, tpf);
+        }
+    }
+
     @Override
     public void update( SimTime time ) {
  
@@ -206,27 +317,80 @@ public class SimplePhysics extends AbstractGameSystem {
         double tpf = time.getTpf();
  
         // Apply control driver changes
-        for( Body b : bodies.getArray() ) {
-            if( b.driver != null ) {
-                b.driver.update(tpf, b);
-            }
-        }
+        Body[] array = bodies.getArray();
+        runPass(Pass.Drivers, array, tpf);
  
         // Integrate
-        for( Body b : bodies.getArray() ) {
-            b.integrate(tpf);
-        }
+        runPass(Pass.Integrate, array, tpf);
  
-        // Publish the results
+        // Publish the results, leaving out anything that the boundary
+        // policy rejected
         for( PhysicsListener l : listeners.getArray() ) {
             for( Body b : bodies.getArray() ) {
-                l.updateBody(b);
+                if( !b.outOfBounds ) {
+                    l.updateBody(b);
+                }
             }
         }
                
         for( PhysicsListener l : listeners.getArray() ) {
             l.endFrame(time);
         }
+        
+        // Now that the listeners are done with this frame, remove the 
+        // rejected entities.  The bodies will go away with them.
+        if( !outOfBounds.isEmpty() ) {
+            Body body = null;
+            while( (body = outOfBounds.poll()) != null ) {
+                ed.removeEntity(body.bodyId);
+            }
+        }
+    }
+
+    private enum Pass {
+        Drivers {
+            void run( SimplePhysics physics, Body[] array, int start, int end, double tpf ) {
+                physics.applyDrivers(array, start, end, tpf);
+            }
+        },
+        Integrate {
+            void run( SimplePhysics physics, Body[] array, int start, int end, double tpf ) {
+                physics.integrate(array, start, end, tpf);
+            }
+        };
+        
+        abstract void run( SimplePhysics physics, Body[] array, int start, int end, double tpf );
+    }
+
+    /**
+     *  Recursively splits a range of bodies until it is small enough
+     *  to run the pass directly.
+     */
+    private class StepTask extends RecursiveAction {
+        private final Pass pass;
+        private final Body[] array;
+        private final int start;
+        private final int end;
+        private final double tpf;
+        
+        public StepTask( Pass pass, Body[] array, int start, int end, double tpf ) {
+            this.pass = pass;
+            this.array = array;
+            this.start = start;
+            this.end = end;
+            this.tpf = tpf;
+        }
+        
+        @Override
+        protected void compute() {
+            if( end - start <= chunkSize ) {
+                pass.run(SimplePhysics.this, array, start, end, tpf);
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new StepTask(pass, array, start, mid, tpf),
+                      new StepTask(pass, array, mid, end, tpf));
+        }
     }
 
     /**
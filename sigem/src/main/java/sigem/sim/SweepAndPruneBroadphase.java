@@ -0,0 +1,391 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package sigem.sim;
+
+import java.util.*;
+
+import com.simsilica.mathd.*;
+
+/**
+ *  A sort-and-sweep broadphase that keeps its sorted x-axis endpoints from
+ *  frame to frame.  Since most bodies move only a little each frame, the 
+ *  insertion sort that restores the order is close to linear.  Each swap of
+ *  a minimum and maximum endpoint starts or ends an x overlap and the set of
+ *  x-overlapping pairs is kept up to date from those swaps.  The persistent 
+ *  pairs are then filtered by their wrapped z overlap each frame.
+ *
+ *  <p>Unlike the grid, this stays near linear when bodies are clustered
+ *  together, for example ships around the planet.</p>
+ *
+ *  <p>Bodies whose x extents cross the arena edge get a second 'ghost' 
+ *  interval on the opposite side so that pairs across the wrap are found.</p>
+ *
+ *  @author    agent
+ */
+public class SweepAndPruneBroadphase implements Broadphase {
+
+    private static final double REMOVED_BASE = 1e290;
+
+    private Vec3d arenaSize;
+    private Vec3d extents;
+    
+    private Map<Body, Proxy> proxyIndex = new IdentityHashMap<>();
+    private List<Proxy> added = new ArrayList<>();
+    private List<Proxy> removed = new ArrayList<>();
+    
+    // Proxies indexed by proxy ID
+    private Proxy[] proxies = new Proxy[64];
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    private int nextId;
+    
+    // The sorted endpoints.  Each end is the proxy ID << 1 with the low bit 
+    // set for maximum endpoints.
+    private double[] values = new double[128];
+    private int[] ends = new int[128];
+    private int endCount;
+    
+    private PairSet overlaps = new PairSet();
+    
+    private long[] pairs = new long[256];
+    private int pairCount;
+ 
+    public SweepAndPruneBroadphase( Vec3d arenaExtents ) {
+        this.extents = arenaExtents.clone();
+        this.arenaSize = arenaExtents.mult(2);
+    }
+ 
+    @Override
+    public void addBody( Body body ) {
+        Proxy proxy = createProxy(body, null);
+        proxyIndex.put(body, proxy);
+        added.add(proxy);
+    }
+    
+    @Override
+    public void removeBody( Body body ) {
+        Proxy proxy = proxyIndex.remove(body);
+        if( proxy == null ) {
+            return;
+        }
+        if( proxy.ghost != null ) {
+            removed.add(proxy.ghost);
+            proxy.ghost = null;
+        }
+        removed.add(proxy);
+    }
+    
+    @Override
+    public int findPairs( Body[] bodies ) {
+        
+        for( int i = 0; i < bodies.length; i++ ) {
+            Proxy proxy = proxyIndex.get(bodies[i]);
+            proxy.index = i;
+            proxy.update();
+            
+            // Create or release the ghost interval as the body crosses the
+            // arena edges
+            double shift = 0;
+            if( proxy.max > extents.x ) {
+                shift = -arenaSize.x;
+            } else if( proxy.min < -extents.x ) {
+                shift = arenaSize.x;
+            }
+            if( shift != 0 ) {
+                if( proxy.ghost == null ) {
+                    proxy.ghost = createProxy(proxy.body, proxy);
+                    added.add(proxy.ghost);
+                }
+                proxy.ghost.shift = shift;
+                proxy.ghost.update();
+            } else if( proxy.ghost != null ) {
+                removed.add(proxy.ghost);
+                proxy.ghost = null;
+            }
+        }
+        
+        // Removed proxies are moved to the end of the endpoint list by the 
+        // sort, which also ends all of their overlaps.  They each get their
+        // own far away interval so that they don't overlap each other.
+        for( int i = 0; i < removed.size(); i++ ) {
+            Proxy proxy = removed.get(i);
+            proxy.min = REMOVED_BASE * (2 * i + 1);
+            proxy.max = REMOVED_BASE * (2 * i + 2);
+        }
+        
+        // New proxies start at the end as if they were at infinity
+        for( Proxy proxy : added ) {
+            addEnd(proxy.id << 1);
+            addEnd((proxy.id << 1) | 1);
+        }
+        added.clear();
+        
+        for( int i = 0; i < endCount; i++ ) {
+            int end = ends[i];
+            values[i] = (end & 1) == 0 ? proxies[end >> 1].min : proxies[end >> 1].max;
+        }
+        sortEndpoints();
+ 
+        for( Proxy proxy : removed ) {
+            endCount -= 2;
+            proxies[proxy.id] = null;
+            if( freeCount == freeIds.length ) {
+                freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+            }
+            freeIds[freeCount++] = proxy.id;
+            proxy.id = -1;
+        }
+        removed.clear();
+ 
+        // Filter the x overlaps by z and convert them to body index pairs       
+        pairCount = 0;
+        long[] keys = overlaps.keys;
+        for( int i = 0; i < keys.length; i++ ) {
+            long key = keys[i];
+            if( key < 0 ) {
+                continue;
+            }
+            Proxy p1 = proxies[(int)(key >>> 32)];
+            Proxy p2 = proxies[(int)key];
+            Body b1 = p1.body;
+            Body b2 = p2.body;
+            if( b1 == b2 ) {
+                continue;
+            }
+            double z = Math.abs(b1.pos.z - b2.pos.z);
+            z = Math.min(z, arenaSize.z - z);
+            if( z >= b1.broadRadius + b2.broadRadius ) {
+                continue;
+            }
+            int i1 = p1.owner.index;
+            int i2 = p2.owner.index;
+            addPair(Math.min(i1, i2), Math.max(i1, i2));
+        }
+        
+        // Sort and remove any duplicates found through both a body and
+        // its ghost
+        Arrays.sort(pairs, 0, pairCount);
+        int unique = 0;
+        for( int i = 0; i < pairCount; i++ ) {
+            if( unique == 0 || pairs[i] != pairs[unique - 1] ) {
+                pairs[unique++] = pairs[i];
+            }
+        }
+        pairCount = unique;
+        return pairCount;
+    }
+ 
+    @Override
+    public long[] getPairs() {
+        return pairs;
+    }
+ 
+    /**
+     *  Returns the current number of x-axis overlaps being tracked.
+     */   
+    public int getOverlapCount() {
+        return overlaps.size;
+    }
+ 
+    private Proxy createProxy( Body body, Proxy owner ) {
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if( id >= proxies.length ) {
+            proxies = Arrays.copyOf(proxies, proxies.length * 2);
+        }
+        Proxy result = new Proxy(id, body, owner);
+        proxies[id] = result;
+        return result;
+    }
+ 
+    private void addEnd( int end ) {
+        if( endCount == ends.length ) {
+            ends = Arrays.copyOf(ends, endCount * 2);
+            values = Arrays.copyOf(values, endCount * 2);
+        }
+        ends[endCount] = end;
+        values[endCount] = Double.POSITIVE_INFINITY;
+        endCount++;
+    }
+ 
+    /**
+     *  Insertion sorts the endpoints, updating the overlaps for every min/max
+     *  swap.  An endpoint moving left past another endpoint starts an overlap
+     *  if a min passes a max and ends one if a max passes a min.
+     */   
+    private void sortEndpoints() {
+        for( int i = 1; i < endCount; i++ ) {
+            double value = values[i];
+            int end = ends[i];
+            int j = i - 1;
+            while( j >= 0 && values[j] > value ) {
+                int other = ends[j];
+                boolean isMax = (end & 1) != 0;
+                boolean otherMax = (other & 1) != 0;
+                if( !isMax && otherMax ) {
+                    overlaps.add(end >> 1, other >> 1);
+                } else if( isMax && !otherMax ) {
+                    overlaps.remove(end >> 1, other >> 1);
+                }
+                values[j + 1] = values[j];
+                ends[j + 1] = other;
+                j--;
+            }
+            values[j + 1] = value;
+            ends[j + 1] = end;
+        }
+    }
+    
+    private void addPair( int i, int j ) {
+        if( pairCount == pairs.length ) {
+            pairs = Arrays.copyOf(pairs, pairCount * 2);
+        }
+        pairs[pairCount++] = ((long)i << 32) | j;
+    }
+ 
+    private static class Proxy {
+        int id;
+        Body body;
+        Proxy owner;
+        Proxy ghost;
+        int index;
+        double shift;
+        double min;
+        double max;
+        
+        public Proxy( int id, Body body, Proxy owner ) {
+            this.id = id;
+            this.body = body;
+            this.owner = owner == null ? this : owner;
+            this.min = Double.POSITIVE_INFINITY;
+            this.max = Double.POSITIVE_INFINITY;
+        }
+        
+        public void update() {
+            min = body.pos.x - body.broadRadius + shift;
+            max = body.pos.x + body.broadRadius + shift;
+        }
+ 
+    }
+ 
+    /**
+     *  An open addressing set of proxy ID pairs so that tracking overlaps 
+     *  doesn't create garbage.  Empty slots are -1.
+     */
+    private static class PairSet {
+        long[] keys = new long[256];
+        int size;
+        
+        public PairSet() {
+            Arrays.fill(keys, -1);
+        }
+        
+        private static long key( int a, int b ) {
+            return a < b ? ((long)a << 32) | b : ((long)b << 32) | a;
+        }
+        
+        private int slot( long key, long[] table ) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int)(h >>> 40) & (table.length - 1);
+        }
+        
+        public void add( int a, int b ) {
+            if( a == b ) {
+                return;
+            }
+            if( (size + 1) * 2 > keys.length ) {
+                grow();
+            }
+            long key = key(a, b);
+            int mask = keys.length - 1;
+            for( int i = slot(key, keys); ; i = (i + 1) & mask ) {
+                if( keys[i] == key ) {
+                    return;
+                }
+                if( keys[i] < 0 ) {
+                    keys[i] = key;
+                    size++;
+                    return;
+                }
+            }
+        }
+        
+        public void remove( int a, int b ) {
+            long key = key(a, b);
+            int mask = keys.length - 1;
+            int i = slot(key, keys);
+            while( keys[i] != key ) {
+                if( keys[i] < 0 ) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            
+            // Shift any following entries back so that lookups don't
+            // stop early at the new hole
+            keys[i] = -1;
+            size--;
+            for( int j = (i + 1) & mask; keys[j] >= 0; j = (j + 1) & mask ) {
+                long moving = keys[j];
+                int home = slot(moving, keys);
+                // Can the entry at j be moved into the hole at i?
+                boolean move = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+                if( move ) {
+                    keys[i] = moving;
+                    keys[j] = -1;
+                    i = j;
+                }
+            }
+        }
+        
+        private void grow() {
+            long[] old = keys;
+            keys = new long[old.length * 2];
+            Arrays.fill(keys, -1);
+            int mask = keys.length - 1;
+            for( long key : old ) {
+                if( key < 0 ) {
+                    continue;
+                }
+                int i = slot(key, keys);
+                while( keys[i] >= 0 ) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+            }
+        }
+    }
+}
@@ -46,12 +46,10 @@ import com.jme3.math.*;
 
 import com.simsilica.es.*;
 import com.simsilica.es.base.DefaultEntityData;
-import com.simsilica.es.common.Decay;
 import com.simsilica.event.*;
 import com.simsilica.lemur.GuiGlobals;
 import com.simsilica.lemur.input.InputMapper;
 import com.simsilica.mathd.*;
-import com.simsilica.sim.SimTime;
 import com.simsilica.sim.common.DecaySystem;
 import com.simsilica.state.*;
 
@@ -78,6 +76,7 @@ public class GameSessionState extends CompositeAppState {
         super(new GameSystemsState(),
               new CameraState(),
               new ModelViewState(),
+              new ThrustEffectState(),
               new PlayerInputState()
               );
             
@@ -101,7 +100,7 @@ public class GameSessionState extends CompositeAppState {
  
         systems.register(GameEntities.class, gameEntities = new GameEntities(ed));       
         systems.register(SimplePhysics.class, new SimplePhysics());
-        systems.addSystem(new PlanetGravity());
+        systems.addSystem(new GravitySystem());
         systems.register(CollisionSystem.class, new CollisionSystem());
         systems.register(AsteroidHitListener.class, new AsteroidHitListener());
         systems.register(MissileHitListener.class, new MissileHitListener());
@@ -127,7 +126,8 @@ public class GameSessionState extends CompositeAppState {
             new Position(0, 0, 0),
             new MassProperties(0),
             ObjectType.create("planet", ed),
-            new SphereShape(8, new Vec3d())
+            new SphereShape(8, new Vec3d()),
+            new GravitySource(1, 1, 16 * 4)
             );
             
         Random rand = new Random(0);
@@ -201,21 +201,11 @@ public class GameSessionState extends CompositeAppState {
         Position pos = ed.getComponent(shooter, Position.class);
         Vec3d dir = pos.getFacing().mult(Vec3d.UNIT_Z); 
         Vec3d loc = pos.getLocation().add(dir.mult(2));
-        SimTime time = systems.getStepTime();
  
         double shotSpeed = 50;
         double shotTime = 2;
         
-        EntityId missile = ed.createEntity();
-        ed.setComponents(missile,
-            new Position(loc),
-            new MassProperties(1/5.0),
-            ObjectType.create("missile", ed),
-            new SphereShape(0, new Vec3d()),
-            new CreatedBy(shooter),
-            new Impulse(dir.mult(shotSpeed), new Vec3d()),
-            new Decay(time.getTime(), time.getFutureTime(shotTime)) 
-            );        
+        gameEntities.createMissile(shooter, loc, dir.mult(shotSpeed), shotTime);
     }
  
     public void pause() {
@@ -271,26 +271,6 @@ public class ModelViewState extends BaseAppState {
         return geom;
     }
     
-    protected Spatial createThrust( Entity entity ) {
-     
-        Node result = new Node("thrust");    
-        Geometry geom = createQuad(2, "Textures/neon-puff256.png", BlendMode.AlphaAdditive);
-        geom.move(0, -1, 0);
-        Material mat = geom.getMaterial();
-        
-        ColorRGBA color = new ColorRGBA(2, 2, 0, 1);
-        mat.setColor("Color", color);
-        
-        // Fade it out over five seconds.  We could have created a system to do
-        // this based on decay, blah blah... but this is really easy.
-        //getState(AnimationState.class).add(new ColorTween(color, ColorRGBA.White, new ColorRGBA(1, 1, 1, 0), 5));
-        getState(AnimationState.class).add(new ColorTween(color, ColorRGBA.White, new ColorRGBA(1, 1, 1, 0), 2.5));
-        
-        result.attachChild(geom);
-        
-        return result;   
-    }
-
     protected Spatial createMissile( Entity entity ) {
      
         Node result = new Node("thrust");    
@@ -397,9 +377,6 @@ public class ModelViewState extends BaseAppState {
             case ObjectType.TYPE_ASTEROID_CHUNK:
                 result = createAsteroid(entity);
                 break;
-            case ObjectType.TYPE_THRUST:
-                result = createThrust(entity);        
-                break;
             case ObjectType.TYPE_MISSILE:
                 result = createMissile(entity);
                 break;
@@ -0,0 +1,284 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package sigem.view;
+
+import java.util.*;
+
+import org.slf4j.*;
+
+import com.jme3.app.Application;
+import com.jme3.app.state.BaseAppState;
+import com.jme3.material.Material;
+import com.jme3.material.RenderState.BlendMode;
+import com.jme3.math.*;
+import com.jme3.renderer.queue.RenderQueue.Bucket;
+import com.jme3.scene.*;
+import com.jme3.scene.shape.*;
+import com.jme3.texture.Texture;
+
+import com.simsilica.es.*;
+import com.simsilica.lemur.GuiGlobals;
+import com.simsilica.mathd.*;
+
+import sigem.Main;
+import sigem.es.*;
+
+/**
+ *  Displays the exhaust puffs for entities with an active ThrustEmitter.
+ *  The puffs are purely visual and are spawned, faded, and recycled here
+ *  without ever touching the EntityData.
+ *
+ *  @author    agent
+ */
+public class ThrustEffectState extends BaseAppState {
+
+    static Logger log = LoggerFactory.getLogger(ThrustEffectState.class);
+
+    // The same yellow to white to clear tween that the old puff entities had
+    private static final ColorRGBA START_COLOR = new ColorRGBA(2, 2, 0, 1);
+    private static final ColorRGBA MID_COLOR = ColorRGBA.White;
+    private static final ColorRGBA END_COLOR = new ColorRGBA(1, 1, 1, 0);
+
+    private EntityData ed;
+    
+    private Node puffRoot;
+    private Texture texture;
+    
+    private EmitterContainer emitters;
+    
+    private List<Puff> active = new ArrayList<>();
+    private List<Puff> free = new ArrayList<>();
+    
+    private double time;
+    
+    // Reused for wrapping the puff locations
+    private Vector3f scratch = new Vector3f();
+
+    public ThrustEffectState() {
+    }
+
+    @Override
+    protected void initialize( Application app ) {
+        puffRoot = new Node("thrust");
+        texture = GuiGlobals.getInstance().loadTexture("Textures/neon-puff256.png", false, false);
+        
+        this.ed = getState(GameSystemsState.class).get(EntityData.class);
+    }
+
+    @Override
+    protected void cleanup( Application app ) {
+    }
+
+    @Override
+    protected void onEnable() {
+        emitters = new EmitterContainer(ed);
+        emitters.start();
+        
+        ((Main)getApplication()).getRootNode().attachChild(puffRoot);
+    }
+
+    @Override
+    protected void onDisable() {
+        puffRoot.removeFromParent();
+        
+        emitters.stop();
+        emitters = null;
+        
+        for( Puff puff : active ) {
+            puff.release();
+        }
+        active.clear();
+    }
+
+    @Override
+    public void update( float tpf ) {
+        time += tpf;
+        
+        emitters.update();
+        
+        // Spawn new puffs.  Like the old entity-based puffs, we only ever
+        // add one per emitter per frame.
+        for( Emitter emitter : emitters.getArray() ) {
+            if( !emitter.isActive() || time < emitter.nextPuff ) {
+                continue;
+            }
+            emitter.nextPuff = time + emitter.emitter.getInterval();
+            spawn(emitter);
+        }
+        
+        // Fade the existing ones and recycle any that are done
+        Vec3d minClip = getState(ModelViewState.class).getMinClip();
+        Vec3d maxClip = getState(ModelViewState.class).getMaxClip();
+        for( Iterator<Puff> it = active.iterator(); it.hasNext(); ) {
+            Puff puff = it.next();
+            double t = (time - puff.start) / puff.lifetime;
+            if( t >= 1 ) {
+                puff.release();
+                it.remove();
+                continue;
+            }
+            if( t < 0.5 ) {
+                puff.color.interpolateLocal(START_COLOR, MID_COLOR, (float)(t * 2));
+            } else {
+                puff.color.interpolateLocal(MID_COLOR, END_COLOR, (float)(t * 2 - 1));
+            }
+            
+            // Clamp to the current viewport the same way the models are.
+            // Most puffs don't need it so only touch the ones that do.
+            Vector3f v = scratch.set(puff.node.getLocalTranslation());
+            if( wrap(v, minClip, maxClip) ) {
+                puff.node.setLocalTranslation(v);
+            }
+        }
+    }
+ 
+    /**
+     *  Wraps the location into the clip region in place and returns true
+     *  if it changed.
+     */   
+    private static boolean wrap( Vector3f v, Vec3d minClip, Vec3d maxClip ) {
+        boolean wrapped = false;
+        if( v.x < minClip.x ) {
+            v.x = (float)(maxClip.x - (minClip.x - v.x));
+            wrapped = true;
+        } else if( v.x > maxClip.x ) {
+            v.x = (float)(minClip.x + (v.x - maxClip.x));
+            wrapped = true;
+        }
+        if( v.z < minClip.z ) {
+            v.z = (float)(maxClip.z - (minClip.z - v.z));
+            wrapped = true;
+        } else if( v.z > maxClip.z ) {
+            v.z = (float)(minClip.z + (v.z - maxClip.z));
+            wrapped = true;
+        }
+        return wrapped;
+    }
+    
+    protected void spawn( Emitter emitter ) {
+        Position pos = emitter.entity.get(Position.class);
+        
+        // Make it appear behind the ship
+        Vec3d loc = pos.getLocation().subtract(pos.getFacing().mult(Vec3d.UNIT_Z.mult(emitter.emitter.getOffset())));
+        
+        Puff puff = free.isEmpty() ? new Puff() : free.remove(free.size() - 1);
+        puff.start = time;
+        puff.lifetime = emitter.emitter.getLifetime();
+        puff.color.set(START_COLOR);
+        puff.node.setLocalTranslation(loc.toVector3f());
+        puff.node.setLocalRotation(pos.getFacing().toQuaternion());
+        puffRoot.attachChild(puff.node);
+        active.add(puff);
+    }
+ 
+    /**
+     *  A reusable puff spatial.
+     */   
+    private class Puff {
+        Node node;
+        ColorRGBA color = new ColorRGBA(1, 1, 1, 1);
+        double start;
+        double lifetime;
+        
+        public Puff() {
+            node = new Node("puff");
+            
+            Quad quad = new Quad(2, 2);
+            Geometry geom = new Geometry("quad", quad);
+            Material mat = GuiGlobals.getInstance().createMaterial(texture, false).getMaterial();
+            mat.getAdditionalRenderState().setBlendMode(BlendMode.AlphaAdditive);
+            mat.setFloat("AlphaDiscardThreshold", 0.01f);
+            mat.setColor("Color", color);
+            geom.setQueueBucket(Bucket.Transparent);
+            geom.rotate(-FastMath.HALF_PI, 0, 0);
+            geom.setMaterial(mat);
+            geom.center();
+            geom.move(0, -1, 0);
+            node.attachChild(geom);
+        }
+        
+        public void release() {
+            node.removeFromParent();
+            free.add(this);
+        }
+    }
+ 
+    private class Emitter {
+        Entity entity;
+        ThrustEmitter emitter;
+        double nextPuff;
+        
+        public Emitter( Entity entity ) {
+            this.entity = entity;
+        }
+        
+        public boolean isActive() {
+            return emitter.isActive();
+        }
+    }
+    
+    private class EmitterContainer extends EntityContainer<Emitter> {
+        public EmitterContainer( EntityData ed ) {
+            super(ed, ThrustEmitter.class, Position.class);
+        }
+        
+        public Emitter[] getArray() {
+            return super.getArray();
+        }
+ 
+        @Override       
+        protected Emitter addObject( Entity e ) {
+            Emitter result = new Emitter(e);
+            updateObject(result, e);
+            return result;
+        }
+        
+        @Override       
+        protected void updateObject( Emitter object, Entity e ) {
+            ThrustEmitter emitter = e.get(ThrustEmitter.class);
+            if( object.emitter != null && !object.emitter.isActive() && emitter.isActive() ) {
+                // Start puffing right away when the thrusters come on
+                object.nextPuff = time;
+            }
+            object.emitter = emitter;
+        }
+        
+        @Override       
+        protected void removeObject( Emitter object, Entity e ) {
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package sigem.sim;
+
+import java.util.*;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import com.simsilica.es.*;
+import com.simsilica.es.base.DefaultEntityData;
+import com.simsilica.mathd.*;
+import com.simsilica.sim.*;
+
+import sigem.es.*;
+
+/**
+ *  Checks the Barnes-Hut gravity against summing every source directly.
+ *
+ *  @author    agent
+ */
+public class GravitySystemTest {
+
+    private static final Vec3d START_VELOCITY = new Vec3d(1, 0, 0);
+
+    private Random rand = new Random(42);
+    private GameSystemManager systems;
+    private EntityData ed;
+    private List<EntityId> sources = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        systems = new GameSystemManager();
+        ed = new DefaultEntityData();
+        systems.register(EntityData.class, ed);
+        systems.register(SimplePhysics.class, new SimplePhysics());
+    }
+
+    @After
+    public void tearDown() {
+        systems.stop();
+        systems.terminate();
+    }
+
+    @Test
+    public void testExactTreeMatchesDirect() {
+        GravitySystem direct = new GravitySystem();
+        direct.setDirectThreshold(Integer.MAX_VALUE);
+        GravitySystem tree = new GravitySystem();
+        tree.setDirectThreshold(0);
+        tree.setTheta(0);
+
+        createSources(0);
+        start(direct, tree);
+        List<Body> directBodies = apply(direct);
+        List<Body> treeBodies = apply(tree);
+
+        for( int i = 0; i < directBodies.size(); i++ ) {
+            Vec3d expected = directBodies.get(i).velocity;
+            Vec3d actual = treeBodies.get(i).velocity;
+            assertEquals("Body:" + i, 0, expected.subtract(actual).length(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testApproximationIsClose() {
+        GravitySystem direct = new GravitySystem();
+        direct.setDirectThreshold(Integer.MAX_VALUE);
+        GravitySystem tree = new GravitySystem();
+        tree.setDirectThreshold(0);
+        tree.setTheta(0.3);
+
+        // A node's cutoff is the largest of its sources so only sources
+        // that all reach everything can be compared
+        createSources(1000);
+        start(direct, tree);
+        List<Body> directBodies = apply(direct);
+        List<Body> treeBodies = apply(tree);
+
+        // The approximation gets worse close to the sources so just check
+        // that most of the bodies end up near the exact answer
+        int close = 0;
+        for( int i = 0; i < directBodies.size(); i++ ) {
+            Vec3d expected = directBodies.get(i).velocity.subtract(START_VELOCITY);
+            Vec3d actual = treeBodies.get(i).velocity.subtract(START_VELOCITY);
+            if( expected.subtract(actual).length() <= expected.length() * 0.05 ) {
+                close++;
+            }
+        }
+        assertTrue("Only " + close + " close", close >= directBodies.size() * 0.9);
+    }
+
+    /**
+     *  Creates sources with two different falloffs, including a clump of
+     *  sources in the same place.  If cutoff is 0 then the sources get
+     *  random cutoffs.
+     */
+    private void createSources( double cutoff ) {
+        for( int i = 0; i < 300; i++ ) {
+            double x = rand.nextDouble() * 200 - 100;
+            double z = rand.nextDouble() * 200 - 100;
+            if( i < 20 ) {
+                x = 50;
+                z = 50;
+            }
+            EntityId source = ed.createEntity();
+            ed.setComponents(source,
+                new Position(x, 0, z),
+                new GravitySource(rand.nextDouble() + 0.1, i % 2 + 1, 
+                                  cutoff > 0 ? cutoff : 50 + rand.nextDouble() * 150)
+                );
+            sources.add(source);
+        }
+    }
+
+    /**
+     *  Creates bodies scattered over the sources and a few that are sources
+     *  themselves.  The bodies are the same for every call.
+     */
+    private List<Body> createBodies() {
+        Random r = new Random(17);
+        List<Body> result = new ArrayList<>();
+        for( int i = 0; i < 100; i++ ) {
+            Body body = new Body(new EntityId(100000 + i),
+                                 r.nextDouble() * 240 - 120, 0, r.nextDouble() * 240 - 120);
+            body.velocity.set(START_VELOCITY);
+            result.add(body);
+        }
+        for( int i = 0; i < 10; i++ ) {
+            EntityId id = sources.get(i * 25);
+            Body body = new Body(id);
+            body.pos.set(ed.getComponent(id, Position.class).getLocation());
+            body.velocity.set(START_VELOCITY);
+            result.add(body);
+        }
+        return result;
+    }
+
+    private void start( GravitySystem... gravity ) {
+        for( GravitySystem system : gravity ) {
+            systems.addSystem(system);
+        }
+        systems.initialize();
+        systems.start();
+    }
+
+    private List<Body> apply( GravitySystem gravity ) {
+        List<Body> result = createBodies();
+        SimTime time = systems.getStepTime();
+        gravity.update(time);
+        gravity.beginFrame(time);
+        for( Body body : result ) {
+            gravity.updateBody(body);
+        }
+        gravity.endFrame(time);
+        return result;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package sigem.sim;
+
+import java.util.*;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import com.simsilica.es.EntityId;
+import com.simsilica.mathd.*;
+
+/**
+ *  Checks the grid broadphase against the brute force broadphase, 
+ *  including pairs that only overlap across the wrapping arena edges.
+ *
+ *  @author    agent
+ */
+public class GridBroadphaseTest {
+
+    private static final Vec3d EXTENTS = new Vec3d(100, 0, 50);
+
+    private Random rand = new Random(42);
+    private long nextId;
+
+    @Test
+    public void testWrappedPairs() {
+        // One pair across each edge, one across the corner, and one that 
+        // is close but not touching.
+        Body[] bodies = {
+            body(99.5, 0, 1), body(-99.5, 0, 1),
+            body(0, 49.5, 1), body(0, -49.5, 1),
+            body(99.2, 49.2, 1), body(-99.2, -49.2, 1),
+            body(50, 0, 1), body(52.5, 0, 1)
+        };
+        Set<Long> expected = new HashSet<>(Arrays.asList(pair(0, 1), pair(2, 3), pair(4, 5)));
+
+        assertEquals(expected, findPairs(new BruteForceBroadphase(EXTENTS), bodies));
+        
+        // The grid can return extra pairs but must not miss any
+        assertTrue(findPairs(new GridBroadphase(EXTENTS), bodies).containsAll(expected));
+    }
+
+    @Test
+    public void testFindsAllPairs() {
+        for( int trial = 0; trial < 20; trial++ ) {
+            Body[] bodies = randomBodies(200);
+            Set<Long> expected = findPairs(new BruteForceBroadphase(EXTENTS), bodies);
+            Set<Long> found = findPairs(new GridBroadphase(EXTENTS), bodies);
+            assertTrue("Missing pairs in trial:" + trial, found.containsAll(expected));
+        }
+    }
+
+    @Test
+    public void testLargeBodies() {
+        // Big bodies force cells bigger than the arena on one axis
+        Body[] bodies = randomBodies(50);
+        bodies[0].broadRadius = 40;
+        bodies[1].broadRadius = 60;
+        Set<Long> expected = findPairs(new BruteForceBroadphase(EXTENTS), bodies);
+        assertTrue(findPairs(new GridBroadphase(EXTENTS), bodies).containsAll(expected));
+    }
+
+    private Set<Long> findPairs( Broadphase broadphase, Body[] bodies ) {
+        int count = broadphase.findPairs(bodies);
+        long[] pairs = broadphase.getPairs();
+        Set<Long> result = new HashSet<>();
+        for( int i = 0; i < count; i++ ) {
+            int b1 = (int)(pairs[i] >>> 32);
+            int b2 = (int)pairs[i];
+            assertTrue("Pair not ordered:" + b1 + ", " + b2, b1 < b2);
+            assertTrue("Pair out of order", i == 0 || pairs[i - 1] < pairs[i]);
+            result.add(pairs[i]);
+        }
+        return result;
+    }
+
+    private Body[] randomBodies( int count ) {
+        Body[] result = new Body[count];
+        for( int i = 0; i < count; i++ ) {
+            // Bunch some of them up along the edges
+            double x = (rand.nextDouble() * 2 - 1) * EXTENTS.x;
+            double z = (rand.nextDouble() * 2 - 1) * EXTENTS.z;
+            if( i % 4 == 0 ) {
+                x = Math.signum(x) * (EXTENTS.x - rand.nextDouble() * 3);
+            } else if( i % 4 == 1 ) {
+                z = Math.signum(z) * (EXTENTS.z - rand.nextDouble() * 3);
+            }
+            result[i] = body(x, z, 0.5 + rand.nextDouble() * 2);
+            result[i].velocity.set(rand.nextDouble() * 2 - 1, 0, rand.nextDouble() * 2 - 1);
+        }
+        return result;
+    }
+
+    private Body body( double x, double z, double radius ) {
+        Body result = new Body(new EntityId(nextId++), x, 0, z);
+        result.radius = radius;
+        result.broadRadius = radius;
+        return result;
+    }
+
+    private static long pair( int i, int j ) {
+        return ((long)i << 32) | j;
+    }
+}
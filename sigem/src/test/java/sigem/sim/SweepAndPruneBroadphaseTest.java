@@ -0,0 +1,189 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package sigem.sim;
+
+import java.util.*;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import com.simsilica.es.EntityId;
+import com.simsilica.mathd.*;
+
+/**
+ *  Checks the sweep-and-prune broadphase against the brute force 
+ *  broadphase as bodies move, wrap around the arena edges, and come
+ *  and go.
+ *
+ *  @author    agent
+ */
+public class SweepAndPruneBroadphaseTest {
+
+    private static final Vec3d EXTENTS = new Vec3d(100, 0, 50);
+
+    private Random rand = new Random(42);
+    private long nextId;
+
+    @Test
+    public void testWrappedPairs() {
+        // One pair across each edge, one across the corner, and one that 
+        // is close but not touching.
+        Body[] bodies = {
+            body(99.5, 0, 1), body(-99.5, 0, 1),
+            body(0, 49.5, 1), body(0, -49.5, 1),
+            body(99.2, 49.2, 1), body(-99.2, -49.2, 1),
+            body(50, 0, 1), body(52.5, 0, 1)
+        };
+        Set<Long> expected = new HashSet<>(Arrays.asList(pair(0, 1), pair(2, 3), pair(4, 5)));
+
+        Broadphase sap = new SweepAndPruneBroadphase(EXTENTS);
+        for( Body b : bodies ) {
+            sap.addBody(b);
+        }
+        assertEquals(expected, findPairs(sap, bodies));
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Broadphase brute = new BruteForceBroadphase(EXTENTS);
+        Broadphase sap = new SweepAndPruneBroadphase(EXTENTS);
+
+        List<Body> live = new ArrayList<>(Arrays.asList(randomBodies(150)));
+        for( Body b : live ) {
+            sap.addBody(b);
+        }
+
+        // Move the bodies around over many frames so that they cross the
+        // edges, with some coming and going to exercise the proxy and
+        // overlap bookkeeping.
+        for( int frame = 0; frame < 200; frame++ ) {
+            for( Body b : live ) {
+                b.pos.x = wrap(b.pos.x + b.velocity.x, EXTENTS.x);
+                b.pos.z = wrap(b.pos.z + b.velocity.z, EXTENTS.z);
+            }
+            if( frame % 10 == 5 ) {
+                for( int i = 0; i < 10; i++ ) {
+                    sap.removeBody(live.remove(rand.nextInt(live.size())));
+                }
+            }
+            if( frame % 10 == 0 ) {
+                for( Body b : randomBodies(10) ) {
+                    live.add(b);
+                    sap.addBody(b);
+                }
+            }
+
+            Body[] bodies = live.toArray(new Body[live.size()]);
+            assertEquals("Frame:" + frame, findPairs(brute, bodies), findPairs(sap, bodies));
+        }
+    }
+
+    @Test
+    public void testReleasesGhosts() {
+        SweepAndPruneBroadphase sap = new SweepAndPruneBroadphase(EXTENTS);
+        Body a = body(99.5, 0, 1);
+        Body b = body(-99.5, 0, 1);
+        sap.addBody(a);
+        sap.addBody(b);
+        Body[] bodies = { a, b };
+
+        assertEquals(1, sap.findPairs(bodies));
+
+        // Once both are back inside the arena then there should be nothing
+        // left overlapping
+        a.pos.x = 90;
+        b.pos.x = -90;
+        assertEquals(0, sap.findPairs(bodies));
+        assertEquals(0, sap.getOverlapCount());
+
+        sap.removeBody(a);
+        sap.removeBody(b);
+        assertEquals(0, sap.findPairs(new Body[0]));
+        assertEquals(0, sap.getOverlapCount());
+    }
+
+    private Set<Long> findPairs( Broadphase broadphase, Body[] bodies ) {
+        int count = broadphase.findPairs(bodies);
+        long[] pairs = broadphase.getPairs();
+        Set<Long> result = new HashSet<>();
+        for( int i = 0; i < count; i++ ) {
+            int b1 = (int)(pairs[i] >>> 32);
+            int b2 = (int)pairs[i];
+            assertTrue("Pair not ordered:" + b1 + ", " + b2, b1 < b2);
+            assertTrue("Pair out of order", i == 0 || pairs[i - 1] < pairs[i]);
+            result.add(pairs[i]);
+        }
+        return result;
+    }
+
+    private Body[] randomBodies( int count ) {
+        Body[] result = new Body[count];
+        for( int i = 0; i < count; i++ ) {
+            // Bunch some of them up along the edges
+            double x = (rand.nextDouble() * 2 - 1) * EXTENTS.x;
+            double z = (rand.nextDouble() * 2 - 1) * EXTENTS.z;
+            if( i % 4 == 0 ) {
+                x = Math.signum(x) * (EXTENTS.x - rand.nextDouble() * 3);
+            } else if( i % 4 == 1 ) {
+                z = Math.signum(z) * (EXTENTS.z - rand.nextDouble() * 3);
+            }
+            result[i] = body(x, z, 0.5 + rand.nextDouble() * 2);
+            result[i].velocity.set(rand.nextDouble() * 2 - 1, 0, rand.nextDouble() * 2 - 1);
+        }
+        return result;
+    }
+
+    private Body body( double x, double z, double radius ) {
+        Body result = new Body(new EntityId(nextId++), x, 0, z);
+        result.radius = radius;
+        result.broadRadius = radius;
+        return result;
+    }
+
+    private static long pair( int i, int j ) {
+        return ((long)i << 32) | j;
+    }
+
+    private static double wrap( double v, double extent ) {
+        if( v > extent ) {
+            return v - extent * 2;
+        } else if( v < -extent ) {
+            return v + extent * 2;
+        }
+        return v;
+    }
+}
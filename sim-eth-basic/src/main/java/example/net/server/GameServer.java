@@ -37,6 +37,7 @@
 package example.net.server;
 
 import java.io.*; 
+import java.util.concurrent.ForkJoinPool;
 
 import org.slf4j.*;
 
@@ -70,10 +71,20 @@ public class GameServer {
     private Server server;
     private GameSystemManager systems;
     private GameLoop loop;
+    private ForkJoinPool physicsPool;
     
     private String description;
     
     public GameServer( int port, String description ) throws IOException {
+        this(port, description, 1);
+    }
+ 
+    /**
+     *  Creates a game server whose physics runs its driver and integration
+     *  passes on a pool of the specified number of threads.  With one
+     *  thread, physics runs entirely on the game loop thread.
+     */   
+    public GameServer( int port, String description, int physicsThreads ) throws IOException {
         this.description = description;
 
         this.systems = new GameSystemManager();
@@ -110,7 +121,12 @@ public class GameServer {
         server.getServices().addService(ethereal);
         
         // Add the various game services to the GameSystemManager 
-        systems.register(SimplePhysics.class, new SimplePhysics());
+        SimplePhysics physics = new SimplePhysics();
+        if( physicsThreads > 1 ) {
+            this.physicsPool = new ForkJoinPool(physicsThreads);
+            physics.setParallelPool(physicsPool);
+        }
+        systems.register(SimplePhysics.class, physics);
         
         // Add any hosted services that require those systems to already
         // exist
@@ -159,6 +175,9 @@ public class GameServer {
             systems.stop();
             systems.terminate();
         }
+        if( physicsPool != null ) {
+            physicsPool.shutdown();
+        }
         log.info("Game server stopped.");
     }
     
@@ -201,10 +220,13 @@ public class GameServer {
         StringWriter sOut = new StringWriter();
         PrintWriter out = new PrintWriter(sOut);
         boolean hasDescription = false;
+        int physicsThreads = 1;
         for( int i = 0; i < args.length; i++ ) {
             if( "-m".equals(args[i]) ) {
                 out.println(args[++i]);
                 hasDescription = true;
+            } else if( "-threads".equals(args[i]) ) {
+                physicsThreads = Integer.parseInt(args[++i]);
             }
         }
         if( !hasDescription ) {
@@ -222,7 +244,7 @@ public class GameServer {
         out.close();
         String desc = sOut.toString();
  
-        GameServer gs = new GameServer(GameConstants.DEFAULT_PORT, desc);
+        GameServer gs = new GameServer(GameConstants.DEFAULT_PORT, desc, physicsThreads);
         gs.start();                
                                                            
         BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
@@ -243,4 +265,4 @@ public class GameServer {
         gs.close();
     }
  
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -60,6 +60,12 @@ public class SimplePhysics extends AbstractGameSystem {
     private ConcurrentLinkedQueue<Body> toRemove = new ConcurrentLinkedQueue<>();
  
     private SafeArrayList<PhysicsListener> listeners = new SafeArrayList<>(PhysicsListener.class);
+ 
+    // Optional parallel execution of the driver and integration passes.
+    // Listeners are always notified from the simulation thread.
+    private ForkJoinPool pool;
+    private int parallelThreshold = 2048;
+    private int chunkSize = 512;
     
     public SimplePhysics() {
     }
@@ -76,6 +82,48 @@ public class SimplePhysics extends AbstractGameSystem {
     public void removePhysicsListener( PhysicsListener l ) {
         listeners.remove(l);
     }
+ 
+    /**
+     *  Sets the ForkJoinPool that will be used to run the control driver
+     *  and integration passes in parallel.  Each body's driver update and
+     *  integration is independent of the other bodies so the body array
+     *  is split into chunks across the pool.  Physics listeners are still
+     *  notified from the simulation thread in the normal beginFrame(),
+     *  updateBody(), endFrame() order.  Set to null (the default) to always
+     *  run on the simulation thread.
+     */
+    public void setParallelPool( ForkJoinPool pool ) {
+        this.pool = pool;
+    }
+    
+    public ForkJoinPool getParallelPool() {
+        return pool;
+    }
+ 
+    /**
+     *  Sets the number of bodies below which the passes will be run serially
+     *  even if a parallel pool has been set.  For small body counts the task 
+     *  overhead is more than the integration itself.  Defaults to 2048.
+     */   
+    public void setParallelThreshold( int parallelThreshold ) {
+        this.parallelThreshold = parallelThreshold;
+    }
+    
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+ 
+    /**
+     *  Sets the maximum number of bodies that a single parallel task
+     *  will process before splitting.  Defaults to 512.
+     */   
+    public void setParallelChunkSize( int chunkSize ) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+    
+    public int getParallelChunkSize() {
+        return chunkSize;
+    }
     
     public int createBody() {
         return createBody(null);        
@@ -125,6 +173,40 @@ public class SimplePhysics extends AbstractGameSystem {
         } 
     }
 
+    /**
+     *  Applies the control drivers to the bodies in the range [start, end).
+     */
+    protected void applyDrivers( Body[] array, int start, int end, double tpf ) {
+        for( int i = start; i < end; i++ ) {
+            Body b = array[i];
+            if( b.driver != null ) {
+                b.driver.update(tpf, b);
+            }
+        }
+    }
+
+    /**
+     *  Integrates the bodies in the range [start, end).
+     */
+    protected void integrate( Body[] array, int start, int end, double tpf ) {
+        for( int i = start; i < end; i++ ) {
+            array[i].integrate(tpf);
+        }
+    }
+
+    /**
+     *  Runs one pass over all of the bodies, splitting it across the 
+     *  pool when there are enough of them.  Every driver sees the same 
+     *  pre-integration state this way, parallel or not.
+     */
+    private void runPass( Pass pass, Body[] array, double tpf ) {
+        if( pool != null && array.length >= parallelThreshold ) {
+            pool.invoke(new StepTask(pass, array, 0, array.length, tpf));
+        } else {
+            pass.run(this, array, 0, array.length, tpf);
+        }
+    }
+
     @Override
     public void update( SimTime time ) {
  
@@ -137,16 +219,11 @@ public class SimplePhysics extends AbstractGameSystem {
         double tpf = time.getTpf();
  
         // Apply control driver changes
-        for( Body b : bodies.getArray() ) {
-            if( b.driver != null ) {
-                b.driver.update(tpf, b);
-            }
-        }
+        Body[] array = bodies.getArray();
+        runPass(Pass.Drivers, array, tpf);
  
         // Integrate
-        for( Body b : bodies.getArray() ) {
-            b.integrate(tpf);
-        }
+        runPass(Pass.Integrate, array, tpf);
  
         // Publish the results
         for( PhysicsListener l : listeners.getArray() ) {
@@ -159,5 +236,50 @@ public class SimplePhysics extends AbstractGameSystem {
             l.endFrame(time);
         }
     }
-    
+
+    private enum Pass {
+        Drivers {
+            void run( SimplePhysics physics, Body[] array, int start, int end, double tpf ) {
+                physics.applyDrivers(array, start, end, tpf);
+            }
+        },
+        Integrate {
+            void run( SimplePhysics physics, Body[] array, int start, int end, double tpf ) {
+                physics.integrate(array, start, end, tpf);
+            }
+        };
+        
+        abstract void run( SimplePhysics physics, Body[] array, int start, int end, double tpf );
+    }
+
+    /**
+     *  Recursively splits a range of bodies until it is small enough
+     *  to run the pass directly.
+     */
+    private class StepTask extends RecursiveAction {
+        private final Pass pass;
+        private final Body[] array;
+        private final int start;
+        private final int end;
+        private final double tpf;
+        
+        public StepTask( Pass pass, Body[] array, int start, int end, double tpf ) {
+            this.pass = pass;
+            this.array = array;
+            this.start = start;
+            this.end = end;
+            this.tpf = tpf;
+        }
+        
+        @Override
+        protected void compute() {
+            if( end - start <= chunkSize ) {
+                pass.run(SimplePhysics.this, array, start, end, tpf);
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new StepTask(pass, array, start, mid, tpf),
+                      new StepTask(pass, array, mid, end, tpf));
+        }
+    }
 }
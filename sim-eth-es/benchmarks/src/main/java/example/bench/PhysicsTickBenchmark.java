@@ -0,0 +1,222 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+import com.simsilica.es.EntityData;
+import com.simsilica.es.EntityId;
+import com.simsilica.es.base.DefaultEntityData;
+import com.simsilica.ethereal.zone.ZoneManager;
+import com.simsilica.mathd.*;
+import com.simsilica.sim.GameSystemManager;
+import com.simsilica.sim.SimTime;
+
+import example.GameConstants;
+import example.es.*;
+import example.net.server.ZoneNetworkSystem;
+import example.sim.*;
+
+/**
+ *  Runs the server-side physics tick headlessly: SimplePhysics integration
+ *  plus the BodyPosition and SimEthereal zone publishing that hang off of
+ *  it.  Each benchmark operation is one full tick of the GameSystemManager.
+ *  The 'bodyTicks' secondary result divides that by the body count to give
+ *  the time per body per tick.
+ *
+ *  <p>Sleeping is turned off so that every body is integrated and published
+ *  every tick, ie: this measures the worst case.</p>
+ *
+ *  @author    agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PhysicsTickBenchmark {
+ 
+    /**
+     *  The total number of physics bodies in the world.
+     */
+    @Param({"1000", "10000", "50000", "200000"})
+    public int bodyCount;
+ 
+    /**
+     *  The fraction of bodies that have an active ShipDriver.
+     */   
+    @Param({"0", "0.1", "1"})
+    public double driverRatio;
+ 
+    /**
+     *  The number of additional physics listeners beyond the standard
+     *  zone and BodyPosition publishers.
+     */   
+    @Param({"0", "4"})
+    public int listenerCount;
+ 
+    /**
+     *  Whether SimplePhysics uses its packed BodyStore.
+     */   
+    @Param({"false", "true"})
+    public boolean packed;
+    
+    private EntityData ed;
+    private ZoneManager zones;
+    private GameSystemManager systems;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        ed = new DefaultEntityData();
+        zones = new ZoneManager(GameConstants.ZONE_GRID);
+        
+        systems = new GameSystemManager();
+        systems.register(EntityData.class, ed);
+        
+        SimplePhysics physics = new SimplePhysics(packed);
+        physics.setSleepTicks(0);
+        systems.register(SimplePhysics.class, physics);
+        systems.addSystem(new ZoneNetworkSystem(zones));
+        systems.addSystem(new BodyPositionPublisher());
+        
+        for( int i = 0; i < listenerCount; i++ ) {
+            physics.addPhysicsListener(new CountingListener());
+        }
+        
+        systems.initialize();
+        systems.start();
+ 
+        // Spread the bodies out over a region a few zones wide in each
+        // direction so that the zone manager has realistic work to do.
+        Random rand = new Random(0);
+        double extent = 64 * 8;
+        int driverCount = (int)(bodyCount * driverRatio);
+        for( int i = 0; i < bodyCount; i++ ) {
+            Vec3d pos = new Vec3d(rand.nextDouble() * extent - extent * 0.5, 
+                                  rand.nextDouble() * extent - extent * 0.5, 
+                                  rand.nextDouble() * extent - extent * 0.5);
+            EntityId id = ed.createEntity();
+            ed.setComponents(id, 
+                             new Position(pos, new Quatd()), 
+                             new MassProperties(1/50.0), 
+                             new SphereShape(3, new Vec3d()));
+            if( i < driverCount ) {
+                ShipDriver driver = new ShipDriver();
+                Quaternion facing = new Quaternion().fromAngles(rand.nextFloat(), rand.nextFloat(), 0);
+                driver.applyMovementState(facing, new Vector3f(0, 0, 1));
+                physics.setControlDriver(id, driver);
+            }
+        }
+ 
+        // Let the physics system pick up all of the new bodies before
+        // we start measuring
+        tick();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        systems.stop();
+        systems.terminate();
+        ed.close();
+    }
+ 
+    private void tick() {
+        systems.update();
+        
+        // Normally the EtherealHost's state collector would be draining
+        // the zone history
+        zones.purgeState();
+    }
+ 
+    @Benchmark
+    public void tick( BodyTicks counter ) {
+        tick();
+        counter.bodyTicks += bodyCount;
+    }
+ 
+    /**
+     *  Counts the bodies processed so that JMH reports time per body
+     *  per tick as a secondary result.
+     */   
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class BodyTicks {
+        public long bodyTicks;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            bodyTicks = 0;
+        }
+    }
+ 
+    /**
+     *  A minimal physics listener that stands in for game-specific listeners.
+     */   
+    private static class CountingListener implements PhysicsListener {
+        private long count;
+        private double sum;
+        
+        @Override
+        public void beginFrame( SimTime time ) {
+        }
+ 
+        @Override
+        public void addBody( Body body ) {
+        }
+        
+        @Override
+        public void updateBody( Body body ) {
+            count++;
+            sum += body.pos.x;
+        }
+ 
+        @Override
+        public void removeBody( Body body ) {
+        }
+        
+        @Override
+        public void endFrame( SimTime time ) {
+        }
+    }
+}
@@ -105,6 +105,12 @@ public class GameConstants {
                                                               gridSize + MAX_OBJECT_RADIUS,
                                                               16);
  
+    /**
+     *  The size of one POSITION_BITS quantization step.  Position changes smaller 
+     *  than this are mostly invisible on the wire.
+     */
+    public static final double POSITION_RESOLUTION = (gridSize + 2 * MAX_OBJECT_RADIUS) / ((1 << 16) - 1.0);
+ 
     /** 
      *  Defines how many network message bits to encode the elements of rotation
      *  fields.  Given that rotation Quaternion values are always between -1 and 1,
@@ -112,6 +118,12 @@ public class GameConstants {
      */
     public static final QuatBits ROTATION_BITS = new QuatBits(12);
  
+    /**
+     *  The size of one ROTATION_BITS quantization step for a single quaternion
+     *  component.
+     */
+    public static final double ROTATION_RESOLUTION = 2.0 / ((1 << 12) - 1);
+ 
     /**
      *  Defines the overall object protocol parameters for how many bits ar used
      *  to encode the various parts of an object update message.  
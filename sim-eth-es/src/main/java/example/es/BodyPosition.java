@@ -40,8 +40,8 @@ import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 import com.simsilica.es.EntityComponent;
 import com.simsilica.es.EntityId;
-import com.simsilica.mathd.trans.PositionTransition3f;
-import com.simsilica.mathd.trans.TransitionBuffer;
+import com.simsilica.mathd.Quatd;
+import com.simsilica.mathd.Vec3d;
 
 
 /**
@@ -51,43 +51,57 @@ import com.simsilica.mathd.trans.TransitionBuffer;
  *  Furthermore, special care is taken to make sure that all BodyPosition objecst for
  *  a particular entity share the internal data buffer.
  *
+ *  <p>The history is kept in a PositionHistory so that adding frames and 
+ *  interpolating them does not create any garbage.</p>
+ *
  *  @author    Paul Speed
  */
 public final class BodyPosition implements EntityComponent {
     private transient int size;
-    private transient TransitionBuffer<PositionTransition3f> position;
+    private transient PositionHistory position;
 
     public BodyPosition() {
     }
     
     public BodyPosition( int history ) {
         this.size = (byte)history;
-        this.position = PositionTransition3f.createBuffer(history);    
+        this.position = new PositionHistory(history);    
     }
  
     /**
      *  Called for a retrieved entity to make sure this BodyPosition
-     *  has it's shared transition buffer.  It must be called for
+     *  has it's shared history buffer.  It must be called for
      *  all retrieved BodyPosition components before use.
      */
     public void initialize( EntityId id, int size ) {
         if( this.position == null ) {
             this.size = size;
-            this.position = BodyPositionCache.getBuffer(id, size);
+            this.position = BodyPositionCache.getHistory(id, size);
         }
     }
     
-    public TransitionBuffer<PositionTransition3f> getBuffer() {
+    public PositionHistory getHistory() {
         return position;
     }
  
+    public void addFrame( long endTime, Vec3d pos, Quatd quat, boolean visible ) {
+        getHistory().addFrame(endTime, pos, quat, visible);
+    }        
+ 
     public void addFrame( long endTime, Vector3f pos, Quaternion quat, boolean visible ) {
-        PositionTransition3f trans = new PositionTransition3f(endTime, pos, quat, visible);
-        getBuffer().addTransition(trans);
+        getHistory().addFrame(endTime, pos, quat, visible);
     }        
  
-    public PositionTransition3f getFrame( long time ) {
-        return getBuffer().getTransition(time);        
+    /**
+     *  Interpolates the position and rotation at the specified time into
+     *  the supplied objects.  Returns false if there is no history yet.
+     */
+    public boolean getTransform( long time, Vector3f posStore, Quaternion rotStore ) {
+        return getHistory().getTransform(time, posStore, rotStore);        
+    }
+ 
+    public boolean isVisible( long time ) {
+        return getHistory().isVisible(time);
     }
     
     @Override
@@ -37,13 +37,11 @@
 package example.es;
 
 import com.simsilica.es.EntityId;
-import com.simsilica.mathd.trans.PositionTransition3f;
-import com.simsilica.mathd.trans.TransitionBuffer;
-import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  *  BodyPosition components hold a buffer that should be shared
@@ -53,6 +51,13 @@ import java.util.Map;
  *  of back into it by keeping a cache of the internal buffers.
  *  BodyPosition will check this cache when initialized.
  *
+ *  <p>The cache is a concurrent map keyed by the EntityId itself so lookups
+ *  from the different client and server threads do not contend on a lock
+ *  and do not need to box a new key.
+ *  Entries are removed explicitly with evict() when the entity goes away and
+ *  otherwise fall out when the buffer is garbage collected.  Each weak 
+ *  reference knows its own key so cleaning up collected entries is O(1).</p>
+ *
  *  @author    Paul Speed
  */
 public class BodyPositionCache {
@@ -63,7 +68,7 @@ public class BodyPositionCache {
      *  Keeps track of the weak references that are ready to remove
      *  from our map.
      */
-    private ReferenceQueue<TransitionBuffer<PositionTransition3f>> refs = new ReferenceQueue<>();
+    private ReferenceQueue<PositionHistory> refs = new ReferenceQueue<>();
  
     /**
      *  A map with weakly referenced values.  We'll clean out the values
@@ -71,30 +76,117 @@ public class BodyPositionCache {
      *  is that garbage hanging around is less bad if no one is requesting
      *  it anyway.
      */
-    private Map<EntityId, WeakReference<TransitionBuffer<PositionTransition3f>>> map = new HashMap<>();
+    private ConcurrentMap<EntityId, HistoryRef> map = new ConcurrentHashMap<>();
  
+    private LongAdder hits = new LongAdder();
+    private LongAdder misses = new LongAdder();
+    private LongAdder evictions = new LongAdder();
+    private LongAdder collected = new LongAdder();
     
-    public static TransitionBuffer<PositionTransition3f> getBuffer( EntityId id, int size ) {
+    public static PositionHistory getHistory( EntityId id, int size ) {
         return instance.get(id, size);
     }
  
-    protected synchronized TransitionBuffer<PositionTransition3f> get( EntityId id, int size ) {
-    
-        // See if we've already got one
-        WeakReference<TransitionBuffer<PositionTransition3f>> result = map.get(id);
-        if( result == null || result.get() == null ) {
-            // Need to create a new one
-            TransitionBuffer<PositionTransition3f> buffer = PositionTransition3f.createBuffer(size);
-            result = new WeakReference<>(buffer);
-            map.put(id, result);    
-        }
+    /**
+     *  Removes the shared buffer for the specified entity from the cache.
+     *  This should be called when the entity is removed.  Any BodyPosition
+     *  components that were already initialized keep their buffer.
+     */   
+    public static void evict( EntityId id ) {
+        instance.remove(id);
+    }
+ 
+    /**
+     *  Returns the number of lookups that found an existing buffer.
+     */   
+    public static long getHitCount() {
+        return instance.hits.sum();
+    }
+ 
+    /**
+     *  Returns the number of lookups that had to create a new buffer.
+     */   
+    public static long getMissCount() {
+        return instance.misses.sum();
+    }
+ 
+    /**
+     *  Returns the number of entries that were explicitly evicted.
+     */   
+    public static long getEvictionCount() {
+        return instance.evictions.sum();
+    }
  
+    /**
+     *  Returns the number of entries that were cleaned up after their
+     *  buffer was garbage collected.
+     */   
+    public static long getCollectedCount() {
+        return instance.collected.sum();
+    }
+ 
+    /**
+     *  Returns the number of entries currently in the cache.
+     */   
+    public static int getSize() {
+        return instance.map.size();
+    }
+ 
+    public static String getStats() {
+        return "BodyPositionCache[size=" + getSize() + ", hits=" + getHitCount() 
+                + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount()
+                + ", collected=" + getCollectedCount() + "]";
+    }
+ 
+    protected PositionHistory get( EntityId id, int size ) {
+    
         // Clean out any dead references to keep our map from growing and growing
-        Reference toRemove;
-        while( (toRemove = refs.poll()) != null ) {
-            map.values().remove(toRemove);
-        }                    
+        expungeCollected();
+ 
+        for( ;; ) {
+            // See if we've already got one
+            HistoryRef ref = map.get(id);
+            PositionHistory result = ref == null ? null : ref.get();
+            if( result != null ) {
+                hits.increment();
+                return result;
+            }
+ 
+            // Need to create a new one... if some other thread beats us to
+            // it then we'll go around again and use theirs.
+            result = new PositionHistory(size);
+            HistoryRef newRef = new HistoryRef(id, result, refs);
+            boolean added = ref == null ? map.putIfAbsent(id, newRef) == null 
+                                        : map.replace(id, ref, newRef);
+            if( added ) {
+                misses.increment();
+                return result;
+            }
+        }
+    }
     
-        return result.get();
-    } 
+    protected void remove( EntityId id ) {
+        if( map.remove(id) != null ) {
+            evictions.increment();
+        }
+    }
+ 
+    protected void expungeCollected() {
+        HistoryRef ref;
+        while( (ref = (HistoryRef)refs.poll()) != null ) {
+            // Only remove the entry if it's still the dead one
+            if( map.remove(ref.id, ref) ) {
+                collected.increment();
+            }
+        }
+    }
+ 
+    private static class HistoryRef extends WeakReference<PositionHistory> {
+        private final EntityId id;
+        
+        public HistoryRef( EntityId id, PositionHistory history, ReferenceQueue<PositionHistory> refs ) {
+            super(history, refs);
+            this.id = id;
+        }
+    }
 }
@@ -0,0 +1,284 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.es;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+import com.simsilica.mathd.Quatd;
+import com.simsilica.mathd.Vec3d;
+
+
+/**
+ *  A fixed size history of position, rotation, and visibility frames
+ *  kept in primitive ring buffers.  Adding a frame does not allocate and
+ *  the interpolation queries write their results into caller-supplied 
+ *  objects, so keeping history for many objects does not generate garbage
+ *  every frame.
+ *
+ *  <p>This supports one writing thread and any number of reading threads
+ *  without locking.  Readers check that the writer hasn't wrapped around
+ *  onto the frames they read and retry if it has.  One extra frame is
+ *  allocated internally so that the requested amount of history is always
+ *  readable while a new frame is being written.</p>
+ *
+ *  @author    agent
+ */
+public class PositionHistory {
+
+    // x, y, z, qx, qy, qz, qw
+    private static final int STRIDE = 7;
+    
+    private final int length; 
+    private final long[] times;
+    private final float[] data;
+    private final boolean[] visible;
+ 
+    /**
+     *  The total number of frames ever written.  The next frame will go
+     *  into slot (head % length).
+     */   
+    private volatile long head;
+    
+    public PositionHistory( int history ) {
+        if( history < 1 ) {
+            throw new IllegalArgumentException("History must be at least 1:" + history);
+        }
+        this.length = history + 1;
+        this.times = new long[length];
+        this.data = new float[length * STRIDE];
+        this.visible = new boolean[length];
+    }
+ 
+    /**
+     *  Returns the number of frames of history that this buffer retains.
+     */   
+    public int getHistorySize() {
+        return length - 1;
+    }
+ 
+    /**
+     *  Returns the number of frames that are currently available.
+     */   
+    public int size() {
+        return (int)Math.min(head, length - 1);
+    }
+ 
+    public void addFrame( long time, Vec3d pos, Quatd rot, boolean visible ) {
+        addFrame(time, (float)pos.x, (float)pos.y, (float)pos.z, 
+                 (float)rot.x, (float)rot.y, (float)rot.z, (float)rot.w, visible);
+    }
+    
+    public void addFrame( long time, Vector3f pos, Quaternion rot, boolean visible ) {
+        addFrame(time, pos.x, pos.y, pos.z, rot.getX(), rot.getY(), rot.getZ(), rot.getW(), visible);
+    }
+ 
+    /**
+     *  Adds a new frame to the history, overwriting the oldest frame if
+     *  the history is full.  Frames are expected to be added in time order
+     *  from a single thread.
+     */   
+    public void addFrame( long time, float x, float y, float z, 
+                          float qx, float qy, float qz, float qw, 
+                          boolean visible ) {
+        long seq = head;
+        int slot = (int)(seq % length);
+        int i = slot * STRIDE;
+        times[slot] = time;
+        data[i++] = x;
+        data[i++] = y;
+        data[i++] = z;
+        data[i++] = qx;
+        data[i++] = qy;
+        data[i++] = qz;
+        data[i] = qw;
+        this.visible[slot] = visible;
+        
+        // Publish the frame
+        head = seq + 1;
+    }
+ 
+    /**
+     *  Returns the time of the most recent frame or -1 if there are
+     *  no frames yet.
+     */   
+    public long getLatestTime() {
+        for( ;; ) {
+            long end = head;
+            if( end == 0 ) {
+                return -1;
+            }
+            long result = times[slot(end - 1)];
+            if( isValid(end - 1) ) {
+                return result;
+            }
+        }
+    }
+ 
+    /**
+     *  Interpolates the position and rotation at the specified time into
+     *  the supplied posStore and rotStore, either of which may be null.  Times
+     *  outside of the available history are clamped to the oldest or newest
+     *  frame.  Returns false, leaving the stores untouched, if there is no
+     *  history yet.
+     */
+    public boolean getTransform( long time, Vector3f posStore, Quaternion rotStore ) {
+        for( ;; ) {
+            long end = head;
+            if( end == 0 ) {
+                return false;
+            }
+            long a = find(time, end);
+            int sa = slot(a);
+            int i1 = sa * STRIDE;
+            long t1 = times[sa];
+            
+            float x, y, z, qx, qy, qz, qw;
+            if( a == end - 1 || time <= t1 ) {
+                x = data[i1];
+                y = data[i1 + 1];
+                z = data[i1 + 2];
+                qx = data[i1 + 3];
+                qy = data[i1 + 4];
+                qz = data[i1 + 5];
+                qw = data[i1 + 6];
+            } else {
+                int sb = slot(a + 1);
+                int i2 = sb * STRIDE;
+                long t2 = times[sb];
+                float t = t2 <= t1 ? 1 : (float)((double)(time - t1) / (t2 - t1));
+                
+                x = data[i1] + (data[i2] - data[i1]) * t;
+                y = data[i1 + 1] + (data[i2 + 1] - data[i1 + 1]) * t;
+                z = data[i1 + 2] + (data[i2 + 2] - data[i1 + 2]) * t;
+ 
+                // Frames are close enough together that a normalized lerp
+                // along the shortest path is indistinguishable from slerp
+                float bx = data[i2 + 3];
+                float by = data[i2 + 4];
+                float bz = data[i2 + 5];
+                float bw = data[i2 + 6];
+                qx = data[i1 + 3];
+                qy = data[i1 + 4];
+                qz = data[i1 + 5];
+                qw = data[i1 + 6];
+                if( qx * bx + qy * by + qz * bz + qw * bw < 0 ) {
+                    bx = -bx;
+                    by = -by;
+                    bz = -bz;
+                    bw = -bw;
+                }
+                qx += (bx - qx) * t;
+                qy += (by - qy) * t;
+                qz += (bz - qz) * t;
+                qw += (bw - qw) * t;
+                float len = (float)Math.sqrt(qx * qx + qy * qy + qz * qz + qw * qw);
+                if( len > 0 ) {
+                    float inv = 1 / len;
+                    qx *= inv;
+                    qy *= inv;
+                    qz *= inv;
+                    qw *= inv;
+                }
+            }
+            
+            if( !isValid(a) ) {
+                // The writer lapped us
+                continue;
+            }
+            if( posStore != null ) {
+                posStore.set(x, y, z);
+            }
+            if( rotStore != null ) {
+                rotStore.set(qx, qy, qz, qw);
+            }
+            return true;
+        }
+    }
+ 
+    /**
+     *  Returns the visibility of the most recent frame at or before
+     *  the specified time, or of the oldest frame if the time is older
+     *  than all of the history.  Returns false if there is no history
+     *  yet.
+     */   
+    public boolean isVisible( long time ) {
+        for( ;; ) {
+            long end = head;
+            if( end == 0 ) {
+                return false;
+            }
+            long a = find(time, end);
+            boolean result = visible[slot(a)];
+            if( isValid(a) ) {
+                return result;
+            }
+        }
+    }
+ 
+    private int slot( long seq ) {
+        return (int)(seq % length);
+    }
+ 
+    /**
+     *  Returns the sequence number of the newest readable frame at or before 
+     *  the specified time or the oldest readable frame if they are all newer.
+     */   
+    private long find( long time, long end ) {
+        // The writer may be overwriting the slot for sequence 'end' which
+        // is where 'end - length' used to be.
+        long start = Math.max(0, end - length + 1);
+        long seq = end - 1;
+        while( seq > start && times[slot(seq)] > time ) {
+            seq--;
+        }
+        return seq;
+    }
+ 
+    /**
+     *  Returns true if the frames from the specified sequence number forward
+     *  have not been overwritten by the writer.
+     */   
+    private boolean isValid( long oldestRead ) {
+        return head - length < oldestRead;
+    }
+ 
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[size=" + size() + ", latest=" + getLatestTime() + "]";
+    }
+}
@@ -52,6 +52,7 @@ import com.simsilica.ethereal.SharedObjectListener;
 import org.slf4j.*;
 
 import example.es.BodyPosition;
+import example.es.BodyPositionCache;
 
 
 /**
@@ -111,6 +112,10 @@ public class SharedObjectUpdater extends AbstractClientService
             // Make sure the added/updated entities have been initialized
             initializeBodyPosition(entities.getAddedEntities());
             initializeBodyPosition(entities.getChangedEntities());
+            
+            // Let the cache drop the shared buffers for entities that
+            // are gone
+            releaseBodyPosition(entities.getRemovedEntities());
         }
     }
     
@@ -124,6 +129,12 @@ public class SharedObjectUpdater extends AbstractClientService
             pos.initialize(e.getId(), 12);
         }
     }
+    
+    protected void releaseBodyPosition( Set<Entity> set ) {
+        for( Entity e : set ) {
+            BodyPositionCache.evict(e.getId());
+        }
+    }
 
     @Override
     public void objectUpdated( SharedObject obj ) {
@@ -147,8 +158,8 @@ public class SharedObjectUpdater extends AbstractClientService
         } else {
             // Update our position buffer
             pos.addFrame(frameTime, 
-                         obj.getWorldPosition().toVector3f(), 
-                         obj.getWorldRotation().toQuaternion(),
+                         obj.getWorldPosition(), 
+                         obj.getWorldRotation(),
                          true);
         }
     }
@@ -177,8 +188,8 @@ public class SharedObjectUpdater extends AbstractClientService
                 log.debug("Setting entity to invisible for:" + obj.getEntityId());
             }
             pos.addFrame(frameTime,  
-                         obj.getWorldPosition().toVector3f(), 
-                         obj.getWorldRotation().toQuaternion(),
+                         obj.getWorldPosition(), 
+                         obj.getWorldRotation(),
                          false);
         }
     }
@@ -0,0 +1,212 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.net.server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.*;
+
+import com.simsilica.es.EntityData;
+import com.simsilica.es.filter.FieldFilter;
+import com.simsilica.ethereal.TimeSource;
+import com.simsilica.ethereal.zone.ZoneManager;
+import com.simsilica.mathd.Vec3d;
+import com.simsilica.sim.*;
+
+import example.es.ArenaId;
+import example.sim.*;
+
+/**
+ *  One independent simulation hosted by the server.  Each arena has its
+ *  own GameSystemManager with its own physics, rewind history, zone
+ *  publishing, timings, and overload control, and runs them on its own
+ *  GameLoop thread.  A slow arena only slows itself down.
+ *
+ *  <p>The arenas share the server's EntityData and zone manager because
+ *  those are what the clients are connected to.  A server has one 
+ *  EntityDataHostedService serving one EntityData and one EtherealHost
+ *  with one zone manager, so an arena with its own would be invisible to 
+ *  its players.  Zay-ES entity data is safe to use from several threads.
+ *  The zone manager is not, so each arena's ZoneNetworkSystem writes its 
+ *  own zone frames while holding the zone manager's lock.</p>
+ *
+ *  <p>Each arena's entities are tagged with its ArenaId so that its 
+ *  physics only sees its own bodies, and each arena is offset far enough 
+ *  in space that the zones of different arenas never overlap.  The arena's 
+ *  physics keeps its bodies within EXTENT of the arena's origin so nothing 
+ *  can fly from one arena into the next.</p>
+ *
+ *  @author    agent
+ */
+public class Arena {
+
+    static Logger log = LoggerFactory.getLogger(Arena.class);
+ 
+    /**
+     *  The distance between the origins of two arenas along the x axis.
+     */
+    public static final double SPACING = 16384;
+ 
+    /**
+     *  How far bodies can get from the arena's origin along each axis.
+     *  This leaves half the spacing between the edges of two arenas.
+     */
+    public static final double EXTENT = SPACING / 4;
+ 
+    private final int id;
+    private final ArenaId arenaId;
+    private final Vec3d origin;
+    private final GameSystemManager systems;
+    private final GameLoop loop;
+    private final SystemTimings timings;
+    private final AtomicInteger playerCount = new AtomicInteger();
+ 
+    /**
+     *  Creates an arena whose zone frames are stamped with the specified
+     *  time source, generally the one the EtherealHost uses.
+     */   
+    public Arena( int id, EntityData ed, ZoneManager zones, TimeSource zoneTime, long tickBudget ) {
+        this.id = id;
+        this.arenaId = new ArenaId(id);
+        this.origin = new Vec3d(id * SPACING, 0, 0);
+        this.systems = new GameSystemManager();
+        this.loop = new GameLoop(systems);
+        this.timings = new SystemTimings(1024, tickBudget);
+ 
+        systems.register(EntityData.class, ed);
+        systems.addSystem(timings.begin());
+        
+        SimplePhysics physics = new SimplePhysics(false, FieldFilter.create(ArenaId.class, "arena", id));
+        Vec3d extents = new Vec3d(EXTENT, EXTENT, EXTENT);
+        physics.setBounds(origin.subtract(extents), origin.add(extents));
+        systems.register(SimplePhysics.class, physics);
+        systems.addSystem(timings.probe("SimplePhysics", physics::getBodyCount));
+        timings.setTickBodies(physics::getBodyCount);
+        
+        // Keep a short history of body positions for resolving shots and
+        // other hit checks against what the clients actually saw
+        systems.register(RewindSystem.class, new RewindSystem());
+        systems.addSystem(timings.probe("RewindSystem"));
+ 
+        // The zone manager is shared with the other arenas' threads
+        systems.register(ZoneNetworkSystem.class, new ZoneNetworkSystem(zones, zoneTime));
+        systems.addSystem(timings.probe("ZoneNetworkSystem"));
+        
+        systems.addSystem(new BodyPositionPublisher());
+        systems.addSystem(timings.probe("BodyPositionPublisher"));
+ 
+        systems.addSystem(new BasicEnvironment(origin, arenaId));
+        systems.addSystem(timings.probe("BasicEnvironment"));
+        
+        systems.register(OverloadController.class, new OverloadController(timings));
+    }
+    
+    public int getId() {
+        return id;
+    }
+ 
+    /**
+     *  Returns the component that tags entities as belonging to this arena.
+     */   
+    public ArenaId getArenaId() {
+        return arenaId;
+    }
+ 
+    /**
+     *  Returns the world location of the center of this arena.
+     */   
+    public Vec3d getOrigin() {
+        return origin;
+    }
+    
+    public GameSystemManager getSystems() {
+        return systems;
+    }
+    
+    public <T> T get( Class<T> type ) {
+        return systems.get(type);
+    }
+    
+    public SystemTimings getTimings() {
+        return timings;
+    }
+    
+    public int getPlayerCount() {
+        return playerCount.get();
+    }
+    
+    protected void playerJoined() {
+        playerCount.incrementAndGet();
+    }
+    
+    protected void playerLeft() {
+        playerCount.decrementAndGet();
+    }
+    
+    protected void initialize() {
+        log.info("Initializing arena:" + id + " at:" + origin);
+        systems.initialize();
+        timings.registerMBeans("example.sim.arena" + id);
+    }
+    
+    /**
+     *  Starts the arena's systems and its game loop thread.
+     */   
+    protected void start() {
+        systems.start();
+        loop.start();
+    }
+ 
+    /**
+     *  Stops the arena's game loop thread and then its systems.
+     */   
+    protected void stop() {
+        loop.stop();
+        systems.stop();
+    }
+    
+    protected void terminate() {
+        timings.unregisterMBeans();
+        systems.terminate();
+    }
+    
+    public String getStats() {
+        OverloadController overload = systems.get(OverloadController.class);
+        return String.format("Arena[%d] players:%d overload:%s %s", id, getPlayerCount(), 
+                             overload.getMode(), systems.get(ZoneNetworkSystem.class).getStats()); 
+    }
+}
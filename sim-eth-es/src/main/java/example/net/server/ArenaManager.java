@@ -0,0 +1,236 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.net.server;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.slf4j.*;
+
+import com.simsilica.es.EntityData;
+import com.simsilica.ethereal.TimeSource;
+import com.simsilica.ethereal.zone.ZoneManager;
+import com.simsilica.sim.AbstractGameSystem;
+import com.simsilica.sim.SimTime;
+
+import example.sim.SimplePhysics;
+
+/**
+ *  Hosts several independent arenas, each running on its own game loop
+ *  thread.  This system only creates and starts the arenas from the 
+ *  server's game loop and manages their lifecycle along with the rest
+ *  of the server's systems.
+ *
+ *  <p>New players are routed to the arena with the fewest players that
+ *  still has room.  If every arena is full, a new arena is created.</p>
+ *
+ *  @author    agent
+ */
+public class ArenaManager extends AbstractGameSystem {
+
+    static Logger log = LoggerFactory.getLogger(ArenaManager.class);
+
+    private final ZoneManager zones;
+    private final TimeSource zoneTime;
+    private final long frameBudget;
+    private EntityData ed;
+    
+    private final List<Arena> arenas = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Arena> pending = new ConcurrentLinkedQueue<>();
+    private volatile int maxPlayersPerArena = 16;
+    private volatile ForkJoinPool physicsPool;
+    private int initialArenas;
+    private boolean started;
+ 
+    /**
+     *  Creates an arena manager that will start with the specified number 
+     *  of arenas.  The arenas all publish to the specified zone manager
+     *  and stamp their zone frames with the specified time source.  Each
+     *  arena's ticks are timed against the full frame budget since each 
+     *  has its own thread.
+     */   
+    public ArenaManager( ZoneManager zones, TimeSource zoneTime, int initialArenas, long frameBudget ) {
+        this.zones = zones;
+        this.zoneTime = zoneTime;
+        this.initialArenas = initialArenas;
+        this.frameBudget = frameBudget;
+    }
+ 
+    /**
+     *  Sets the number of players after which an arena is considered full.
+     *  Defaults to 16.
+     */   
+    public void setMaxPlayersPerArena( int maxPlayersPerArena ) {
+        this.maxPlayersPerArena = maxPlayersPerArena;
+    }
+    
+    public int getMaxPlayersPerArena() {
+        return maxPlayersPerArena;
+    }
+ 
+    /**
+     *  Sets the ForkJoinPool that the physics of arenas created after this
+     *  call will use for their parallel passes.  The arenas all share the
+     *  one pool.  Defaults to null, ie: physics runs serially.
+     */   
+    public void setPhysicsPool( ForkJoinPool physicsPool ) {
+        this.physicsPool = physicsPool;
+    }
+    
+    public ForkJoinPool getPhysicsPool() {
+        return physicsPool;
+    }
+ 
+    /**
+     *  Returns the current arenas.  Arenas that have been created but not
+     *  yet started are not included.
+     */   
+    public List<Arena> getArenas() {
+        return Collections.unmodifiableList(arenas);
+    }
+ 
+    /**
+     *  Creates a new arena.  This can be called from any thread.  The arena
+     *  will be initialized and its own game loop started from the server's
+     *  game loop thread on the next frame.
+     */   
+    public synchronized Arena createArena() {
+        int id = arenas.size() + pending.size();
+        Arena result = new Arena(id, ed, zones, zoneTime, frameBudget);
+        result.get(SimplePhysics.class).setParallelPool(physicsPool);
+        pending.add(result);
+        return result;
+    }
+ 
+    /**
+     *  Picks the arena for a newly joined player and counts the player as
+     *  part of it.  This can be called from any thread.
+     */   
+    public synchronized Arena joinArena() {
+        Arena best = null;
+        for( Arena arena : arenas ) {
+            if( arena.getPlayerCount() >= maxPlayersPerArena ) {
+                continue;
+            }
+            if( best == null || arena.getPlayerCount() < best.getPlayerCount() ) {
+                best = arena;
+            }
+        }
+        if( best == null ) {
+            // Everything is full... or not started yet
+            for( Arena arena : pending ) {
+                if( arena.getPlayerCount() < maxPlayersPerArena ) {
+                    best = arena;
+                    break;
+                }
+            }
+        }
+        if( best == null ) {
+            best = createArena();
+        }
+        best.playerJoined();
+        return best;
+    }
+    
+    public void leaveArena( Arena arena ) {
+        arena.playerLeft();
+    }
+ 
+    @Override
+    protected void initialize() {
+        this.ed = getSystem(EntityData.class, true);
+        for( int i = 0; i < initialArenas; i++ ) {
+            createArena();
+        }
+        addPending();
+    }
+    
+    @Override
+    protected void terminate() {
+        for( Arena arena : arenas ) {
+            arena.terminate();
+        }
+        arenas.clear();
+    }
+    
+    @Override
+    public void start() {
+        for( Arena arena : arenas ) {
+            arena.start();
+        }
+        started = true;
+    }
+    
+    @Override
+    public void update( SimTime time ) {
+        addPending();
+    }
+    
+    @Override
+    public void stop() {
+        started = false;
+        for( Arena arena : arenas ) {
+            arena.stop();
+        }
+    }
+ 
+    private synchronized void addPending() {
+        if( pending.isEmpty() ) {
+            return;
+        }
+        Arena arena;
+        while( (arena = pending.poll()) != null ) {
+            arena.initialize();
+            if( started ) {
+                arena.start();
+            }
+            arenas.add(arena);
+        }
+        log.info("Hosting " + arenas.size() + " arena(s)");
+    }
+    
+    public String getStats() {
+        StringBuilder sb = new StringBuilder();
+        for( Arena arena : arenas ) {
+            if( sb.length() > 0 ) {
+                sb.append("\n");
+            }
+            sb.append(arena.getStats());
+        }
+        return sb.toString();
+    }
+}
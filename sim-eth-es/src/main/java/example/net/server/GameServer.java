@@ -37,6 +37,7 @@
 package example.net.server;
 
 import java.io.*; 
+import java.util.concurrent.ForkJoinPool;
 
 import org.slf4j.*;
 
@@ -81,10 +82,33 @@ public class GameServer {
     private Server server;
     private GameSystemManager systems;
     private GameLoop loop;
+    private SystemTimings timings;
+    private ForkJoinPool physicsPool;
     
     private String description;
+ 
+    // The game loop's default step   
+    private static final long FRAME_BUDGET = 1000000000L / 60;
     
     public GameServer( int port, String description ) throws IOException {
+        this(port, description, 1);
+    }
+ 
+    /**
+     *  Creates a game server that starts out hosting the specified number of
+     *  independent arenas.  More arenas are created as the existing ones fill up.
+     */   
+    public GameServer( int port, String description, int arenaCount ) throws IOException {
+        this(port, description, arenaCount, 1);
+    }
+ 
+    /**
+     *  Creates a game server that starts out hosting the specified number of
+     *  arenas and whose arena physics runs its driver and integration passes
+     *  on a shared pool of the specified number of threads.  With one thread, 
+     *  physics runs entirely on the game loop thread.
+     */   
+    public GameServer( int port, String description, int arenaCount, int physicsThreads ) throws IOException {
         this.description = description;
 
         // Make sure we are running with a fresh serializer registry
@@ -93,6 +117,11 @@ public class GameServer {
         this.systems = new GameSystemManager();
         this.loop = new GameLoop(systems);
         
+        // Time each game system's update().  The probes go in between
+        // the systems as they are added.
+        this.timings = new SystemTimings(1024, FRAME_BUDGET);
+        systems.addSystem(timings.begin());
+        
         // Create the SpiderMonkey server and setup our standard
         // initial hosted services 
         this.server = Network.createServer(GameConstants.GAME_NAME, 
@@ -131,44 +160,51 @@ public class GameServer {
         EtherealHost ethereal = new EtherealHost(GameConstants.OBJECT_PROTOCOL, 
                                                  GameConstants.ZONE_GRID,
                                                  GameConstants.ZONE_RADIUS);
-        ethereal.setTimeSource(new TimeSource() {
+        TimeSource timeSource = new TimeSource() {
             @Override
             public long getTime() {
                 return systems.getStepTime().getUnlockedTime(System.nanoTime());
             }
-        });
+        };
+        ethereal.setTimeSource(timeSource);
         server.getServices().addService(ethereal);
         
-        // Add the various game services to the GameSystemManager 
-        systems.register(SimplePhysics.class, new SimplePhysics());
-        
-        // Add any hosted services that require those systems to already
-        // exist
- 
-        // Add a system that will forward physics changes to the Ethereal 
-        // zone manager       
-        systems.addSystem(new ZoneNetworkSystem(ethereal.getZones()));
- 
         // Setup our entity data and the hosting service
         DefaultEntityData ed = new DefaultEntityData();
         server.getServices().addService(new EntityDataHostedService(GameConstants.ES_CHANNEL, ed));
-        
-        // Add it to the game systems so that we send updates properly
-        systems.addSystem(new EntityUpdater(server.getServices().getService(EntityDataHostedService.class)));
-
-        // Add another publisher to post object updates to our server-side
-        // BodyPosition components.  This will also make BodyPosition available
-        // on the clients.
-        systems.addSystem(new BodyPositionPublisher());
 
         // Register some custom serializers
         registerSerializers();
         
         // Make the EntityData available to other systems
         systems.register(EntityData.class, ed);
+        
+        // Add the arenas.  Each arena is an independent simulation with 
+        // its own physics, rewind history, zone publishing, and environment
+        // running on its own thread.  They share the entity data and zone 
+        // manager that the clients are connected to, and stamp their zone
+        // frames with the same time source as the ethereal host.
+        ArenaManager arenas = new ArenaManager(ethereal.getZones(), timeSource, arenaCount, FRAME_BUDGET);
+        if( physicsThreads > 1 ) {
+            this.physicsPool = new ForkJoinPool(physicsThreads);
+            arenas.setPhysicsPool(physicsPool);
+        }
+        systems.register(ArenaManager.class, arenas);
+        systems.addSystem(timings.probe("ArenaManager"));
+        timings.setTickBodies(() -> {
+                int count = 0;
+                for( Arena arena : arenas.getArenas() ) {
+                    count += arena.get(SimplePhysics.class).getBodyCount();
+                }
+                return count;
+            });
+        
+        // Add it to the game systems so that we send updates properly
+        systems.addSystem(new EntityUpdater(server.getServices().getService(EntityDataHostedService.class)));
+        systems.addSystem(timings.probe("EntityUpdater"));
  
-        // Add a system for creating the basic "world" entities
-        systems.addSystem(new BasicEnvironment());
+        // Make the timings available to JMX tools like jconsole
+        timings.registerMBeans("example.sim");
         
         log.info("Initializing game systems...");
         // Initialize the game system manager to prepare to start later
@@ -177,6 +213,7 @@ public class GameServer {
     
     protected void registerSerializers() {
         Serializer.registerClass(Name.class, new FieldSerializer());
+        Serializer.registerClass(ArenaId.class, new FieldSerializer());
         
         Serializer.registerClass(BodyPosition.class, new FieldSerializer());
         Serializer.registerClass(ObjectType.class, new FieldSerializer());
@@ -213,12 +250,16 @@ public class GameServer {
             }
         }
         server.close();
+        timings.unregisterMBeans();
         
         // The GameLoop dying should have already stopped the game systems
         if( systems.isInitialized() ) {
             systems.stop();
             systems.terminate();
         }
+        if( physicsPool != null ) {
+            physicsPool.shutdown();
+        }
         log.info("Game server stopped.");
     }
     
@@ -249,6 +290,25 @@ public class GameServer {
             log.info("[" + conn.getId() + "] Ack miss: " + miss + "%");
             log.info("[" + conn.getId() + "] Average msg size: " + listener.getConnectionStats().getAverageMessageSize() + " bytes");
         }
+        log.info(BodyPositionCache.getStats());
+        log.info(systems.get(ArenaManager.class).getStats());
+    }
+ 
+    /**
+     *  Logs the update() timings of each game system.
+     */   
+    public void logSystemStats() {
+        log.info("Game system timings:\n" + timings.getStats());
+        for( Arena arena : systems.get(ArenaManager.class).getArenas() ) {
+            OverloadController overload = arena.get(OverloadController.class);
+            log.info(String.format("Arena[%d] timings, overload mode:%s average tick:%.3f ms\n%s", 
+                                   arena.getId(), overload.getMode(), overload.getAverageTickMillis(),
+                                   arena.getTimings().getStats()));
+        }
+    }
+    
+    public SystemTimings getSystemTimings() {
+        return timings;
     }
     
     /**
@@ -261,10 +321,16 @@ public class GameServer {
         StringWriter sOut = new StringWriter();
         PrintWriter out = new PrintWriter(sOut);
         boolean hasDescription = false;
+        int arenaCount = 1;
+        int physicsThreads = 1;
         for( int i = 0; i < args.length; i++ ) {
             if( "-m".equals(args[i]) ) {
                 out.println(args[++i]);
                 hasDescription = true;
+            } else if( "-arenas".equals(args[i]) ) {
+                arenaCount = Integer.parseInt(args[++i]);
+            } else if( "-threads".equals(args[i]) ) {
+                physicsThreads = Integer.parseInt(args[++i]);
             }
         }
         if( !hasDescription ) {
@@ -282,7 +348,7 @@ public class GameServer {
         out.close();
         String desc = sOut.toString();
  
-        GameServer gs = new GameServer(GameConstants.DEFAULT_PORT, desc);
+        GameServer gs = new GameServer(GameConstants.DEFAULT_PORT, desc, arenaCount, physicsThreads);
         gs.start();                
                                                            
         BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
@@ -295,6 +361,8 @@ public class GameServer {
                 break;
             } else if( "stats".equals(line) ) {
                 gs.logStats();
+            } else if( "stats systems".equals(line) ) {
+                gs.logSystemStats();
             } else {
                 System.err.println("Unknown command:" + line);
             }
@@ -90,7 +90,7 @@ public class GameSessionHostedService extends AbstractHostedConnectionService {
 
     private GameSystemManager gameSystems;
     private EntityData ed;
-    private SimplePhysics physics;    
+    private ArenaManager arenas;    
 
     private RmiHostedService rmiService;
     private AccountObserver accountObserver = new AccountObserver();
@@ -133,10 +133,10 @@ public class GameSessionHostedService extends AbstractHostedConnectionService {
         }
         this.ed = eds.getEntityData();
         
-        // Get the physics system... it's not available yet when onInitialize() is called.
-        physics = gameSystems.get(SimplePhysics.class);
-        if( physics == null ) {
-            throw new RuntimeException("GameSessionHostedService requires a SimplePhysics system.");
+        // Get the arenas... they're not available yet when onInitialize() is called.
+        arenas = gameSystems.get(ArenaManager.class);
+        if( arenas == null ) {
+            throw new RuntimeException("GameSessionHostedService requires an ArenaManager system.");
         }
         //physics.addPhysicsListener(new NaivePhysicsSender());        
     }
@@ -163,7 +163,11 @@ public class GameSessionHostedService extends AbstractHostedConnectionService {
  
         // Setup to start using SimEthereal synching
         getService(EtherealHost.class).startHostingOnConnection(conn);
-        getService(EtherealHost.class).setConnectionObject(conn, session.shipEntity.getId(), new Vec3d());       
+        getService(EtherealHost.class).setConnectionObject(conn, session.shipEntity.getId(), 
+                                                           session.arena.getOrigin());       
+        
+        // Let the zone network system prioritize updates near the player's ship
+        session.arena.get(ZoneNetworkSystem.class).addObserver(session.shipEntity);
  
         // Start hosting on the chat server also
         String name = AccountHostedService.getPlayerName(conn);
@@ -181,6 +185,7 @@ public class GameSessionHostedService extends AbstractHostedConnectionService {
         GameSessionImpl session = getGameSession(conn);
         if( session != null ) {
             
+            session.arena.get(ZoneNetworkSystem.class).removeObserver(session.shipEntity);
             session.close();
 
             // Remove this connection from the chat service also.
@@ -227,24 +232,30 @@ public class GameSessionHostedService extends AbstractHostedConnectionService {
         private EntityId playerEntity;
         private EntityId shipEntity;
         private ShipDriver shipDriver;
+        private Arena arena;
         
         public GameSessionImpl( EntityId playerEntity, HostedConnection conn ) {
             this.playerEntity = playerEntity;
             this.conn = conn;
+ 
+            // Find the arena that the player will play in
+            this.arena = arenas.joinArena();
+            log.info("Player:" + playerEntity + " joining arena:" + arena.getId());
             
             // Create a ship for the player
             this.shipDriver = new ShipDriver();
             
             this.shipEntity = GameEntities.createShip(playerEntity, ed);
+            ed.setComponent(shipEntity, arena.getArenaId());
             
             // Set the ship driver directly on the Body.  This could
             // also have been managed with a component-based system but 
             // that will wait.
-            physics.setControlDriver(shipEntity, shipDriver);
+            arena.get(SimplePhysics.class).setControlDriver(shipEntity, shipDriver);
             
             // Set the position when we want the ship to actually appear
             // in space 'for real'.
-            ed.setComponent(shipEntity, new Position(1, 1, 1));
+            ed.setComponent(shipEntity, new Position(arena.getOrigin().add(1, 1, 1)));
 System.out.println("Set position on:" + shipEntity);            
         }
  
@@ -260,6 +271,8 @@ System.out.println("Set position on:" + shipEntity);
             
             // Remove the ship we created
             ed.removeEntity(shipEntity);
+            
+            arenas.leaveArena(arena);
         }
  
         @Override
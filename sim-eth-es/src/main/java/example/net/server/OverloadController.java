@@ -0,0 +1,214 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.net.server;
+
+import org.slf4j.*;
+
+import com.simsilica.event.EventBus;
+import com.simsilica.sim.AbstractGameSystem;
+import com.simsilica.sim.SimTime;
+
+import example.sim.SimplePhysics;
+
+/**
+ *  Watches the cost of each game loop tick and sheds load when the server
+ *  can't keep up.  Past the degrade threshold, the zone network send rate
+ *  is lowered first and then, if that wasn't enough, the physics rate.
+ *  Physics still integrates the skipped time in substeps but only updates
+ *  its entities and listeners on the frames where it runs.  When the load
+ *  drops back below the restore threshold, the steps are undone in reverse 
+ *  order.  An OverloadEvent is published on every mode change.
+ *
+ *  <p>Tick cost is taken from the SystemTimings "tick" timing and smoothed
+ *  over every tick so that single spikes don't flip modes.  With reduced 
+ *  physics, the cheap ticks in between physics updates count too, so the 
+ *  average is the real per-tick cost and drops once shedding helps.  A mode 
+ *  must also be held for a minimum number of ticks before the controller 
+ *  will change it again.</p>
+ *
+ *  @author    agent
+ */
+public class OverloadController extends AbstractGameSystem {
+
+    static Logger log = LoggerFactory.getLogger(OverloadController.class);
+
+    public enum Mode { 
+        /** Everything runs at full rate. */
+        Normal, 
+        /** The zone network send rate has been lowered. */
+        ReducedSend, 
+        /** The send rate and the physics rate have been lowered. */
+        ReducedPhysics 
+    }
+
+    private final SystemTimings timings;
+    private SimplePhysics physics;
+    private ZoneNetworkSystem zoneNetwork;
+    
+    private volatile double degradeThreshold = 0.9;
+    private volatile double restoreThreshold = 0.6;
+    private volatile int holdTicks = 120;
+    private volatile int reducedSendInterval = 2;
+    private volatile int reducedPhysicsDivisor = 2;
+    private double smoothing = 0.05;
+    
+    private volatile Mode mode = Mode.Normal;
+    private volatile double averageTick;
+    private long ticksInMode;
+ 
+    public OverloadController( SystemTimings timings ) {
+        this.timings = timings;
+    }
+ 
+    /**
+     *  Sets the fractions of the tick budget that the smoothed tick time 
+     *  must go above to degrade further or below to restore.  Defaults 
+     *  to 0.9 and 0.6.
+     */   
+    public void setThresholds( double degradeThreshold, double restoreThreshold ) {
+        if( restoreThreshold >= degradeThreshold ) {
+            throw new IllegalArgumentException("Restore threshold must be below the degrade threshold");
+        }
+        this.degradeThreshold = degradeThreshold;
+        this.restoreThreshold = restoreThreshold;
+    }
+    
+    public double getDegradeThreshold() {
+        return degradeThreshold;
+    }
+    
+    public double getRestoreThreshold() {
+        return restoreThreshold;
+    }
+ 
+    /**
+     *  Sets the minimum number of ticks between mode changes.  Defaults to 120.
+     */   
+    public void setHoldTicks( int holdTicks ) {
+        this.holdTicks = holdTicks;
+    }
+    
+    public int getHoldTicks() {
+        return holdTicks;
+    }
+ 
+    /**
+     *  Sets the zone network send interval to use once degraded.  Defaults to 2.
+     */   
+    public void setReducedSendInterval( int reducedSendInterval ) {
+        this.reducedSendInterval = reducedSendInterval;
+    }
+    
+    public int getReducedSendInterval() {
+        return reducedSendInterval;
+    }
+
+    /**
+     *  Sets the physics rate divisor to use in ReducedPhysics mode.  Defaults to 2.
+     */   
+    public void setReducedPhysicsDivisor( int reducedPhysicsDivisor ) {
+        this.reducedPhysicsDivisor = reducedPhysicsDivisor;
+    }
+    
+    public int getReducedPhysicsDivisor() {
+        return reducedPhysicsDivisor;
+    }
+    
+    public Mode getMode() {
+        return mode;
+    }
+ 
+    /**
+     *  Returns the smoothed tick time in milliseconds.
+     */   
+    public double getAverageTickMillis() {
+        return averageTick / 1000000.0;
+    }
+ 
+    @Override
+    protected void initialize() {
+        this.physics = getSystem(SimplePhysics.class, true);
+        this.zoneNetwork = getSystem(ZoneNetworkSystem.class, true);
+    }
+    
+    @Override
+    protected void terminate() {
+    }
+ 
+    @Override
+    public void stop() {
+        // Leave things the way we found them
+        setMode(Mode.Normal);
+    }
+ 
+    @Override
+    public void update( SimTime time ) {
+        long last = timings.getTickTiming().getLastNanos();
+        if( last == 0 ) {
+            return;
+        }
+        averageTick = averageTick == 0 ? last : averageTick + (last - averageTick) * smoothing;
+        
+        ticksInMode++;
+        if( ticksInMode < holdTicks ) {
+            return;
+        }
+        
+        double load = averageTick / timings.getTickBudget();
+        if( load > degradeThreshold && mode != Mode.ReducedPhysics ) {
+            setMode(Mode.values()[mode.ordinal() + 1]);
+        } else if( load < restoreThreshold && mode != Mode.Normal ) {
+            setMode(Mode.values()[mode.ordinal() - 1]);
+        }
+    }
+    
+    protected void setMode( Mode newMode ) {
+        if( newMode == mode ) {
+            return;
+        }
+        Mode previous = mode;
+        this.mode = newMode;
+        this.ticksInMode = 0;
+        
+        zoneNetwork.setSendInterval(newMode == Mode.Normal ? 1 : reducedSendInterval);
+        physics.setRateDivisor(newMode == Mode.ReducedPhysics ? reducedPhysicsDivisor : 1);
+        
+        log.info("Overload mode changed from:" + previous + " to:" + newMode 
+                    + String.format(" average tick:%.3f ms", getAverageTickMillis()));
+        EventBus.publish(OverloadEvent.modeChanged, new OverloadEvent(previous, newMode, getAverageTickMillis()));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.net.server;
+
+import com.google.common.base.MoreObjects;
+
+import com.simsilica.event.EventType;
+
+/**
+ *  Server-side event sent to the event bus when the OverloadController
+ *  changes its mode.
+ *
+ *  @author    agent
+ */
+public class OverloadEvent {
+
+    /**
+     *  Signals that the server has moved to a different overload mode.
+     */
+    public static EventType<OverloadEvent> modeChanged = EventType.create("OverloadModeChanged", OverloadEvent.class);
+    
+    private OverloadController.Mode previous;
+    private OverloadController.Mode mode;
+    private double tickMillis;
+    
+    public OverloadEvent( OverloadController.Mode previous, OverloadController.Mode mode, double tickMillis ) {
+        this.previous = previous;
+        this.mode = mode;
+        this.tickMillis = tickMillis;
+    }
+    
+    public OverloadController.Mode getPreviousMode() {
+        return previous;
+    }
+    
+    public OverloadController.Mode getMode() {
+        return mode;
+    }
+ 
+    /**
+     *  Returns the smoothed tick time that caused the change.
+     */   
+    public double getTickMillis() {
+        return tickMillis;
+    }
+ 
+    @Override   
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass().getSimpleName())
+                    .add("previous", previous)
+                    .add("mode", mode)
+                    .add("tickMillis", tickMillis)
+                    .toString();
+    }   
+}
@@ -0,0 +1,158 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.net.server;
+
+import java.util.Arrays;
+
+/**
+ *  Keeps a rolling window of update() times for one game system.  Samples
+ *  are recorded from the game loop thread and read from whatever thread
+ *  is asking, ie: JMX or the console.
+ *
+ *  @author    agent
+ */
+public class SystemTiming implements SystemTimingMBean {
+
+    private final String name;
+    private final long[] samples;
+    private long count;
+    private volatile long overruns;
+    private volatile int bodies = -1;
+    
+    public SystemTiming( String name, int windowSize ) {
+        this.name = name;
+        this.samples = new long[windowSize];
+    }
+ 
+    public synchronized void record( long nanos ) {
+        samples[(int)(count % samples.length)] = nanos;
+        count++;
+    }
+    
+    /**
+     *  Returns the most recent sample in nanoseconds or 0 if there
+     *  have been no samples yet.
+     */
+    public synchronized long getLastNanos() {
+        if( count == 0 ) {
+            return 0;
+        }
+        return samples[(int)((count - 1) % samples.length)];
+    }
+    
+    public void setBodiesProcessed( int bodies ) {
+        this.bodies = bodies;
+    }
+    
+    public void overrun() {
+        overruns++;
+    }
+ 
+    /**
+     *  Returns a sorted copy of the current window.
+     */
+    protected synchronized long[] getWindow() {
+        long[] result = Arrays.copyOf(samples, (int)Math.min(count, samples.length));
+        Arrays.sort(result);
+        return result;
+    }
+    
+    protected static double percentile( long[] sorted, double p ) {
+        if( sorted.length == 0 ) {
+            return 0;
+        }
+        int index = (int)Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1000000.0;
+    }
+ 
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public synchronized long getSampleCount() {
+        return count;
+    }
+    
+    @Override
+    public double getMeanMillis() {
+        long[] window = getWindow();
+        if( window.length == 0 ) {
+            return 0;
+        }
+        double total = 0;
+        for( long t : window ) {
+            total += t;
+        }
+        return total / window.length / 1000000.0;
+    }
+    
+    @Override
+    public double getP50Millis() {
+        return percentile(getWindow(), 0.5);
+    }
+    
+    @Override
+    public double getP99Millis() {
+        return percentile(getWindow(), 0.99);
+    }
+    
+    @Override
+    public double getMaxMillis() {
+        return percentile(getWindow(), 1);
+    }
+ 
+    @Override   
+    public long getOverrunCount() {
+        return overruns;
+    }
+ 
+    @Override   
+    public int getBodiesProcessed() {
+        return bodies;
+    }
+ 
+    @Override
+    public String toString() {
+        long[] window = getWindow();
+        return String.format("%-22s p50:%8.3f ms  p99:%8.3f ms  max:%8.3f ms  overruns:%d%s",
+                             name, percentile(window, 0.5), percentile(window, 0.99),
+                             percentile(window, 1), overruns,  
+                             bodies < 0 ? "" : "  bodies:" + bodies);
+    }
+}
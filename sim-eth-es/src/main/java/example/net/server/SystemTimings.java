@@ -0,0 +1,256 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.net.server;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.IntSupplier;
+import javax.management.*;
+
+import org.slf4j.*;
+
+import com.simsilica.sim.AbstractGameSystem;
+import com.simsilica.sim.GameSystem;
+import com.simsilica.sim.SimTime;
+
+/**
+ *  Times the update() of each game system without wrapping them by adding
+ *  a do-nothing probe system after each one.  The GameSystemManager updates
+ *  systems in the order they were added so the time between two probes 
+ *  is the time spent in the system(s) between them.  The first probe marks 
+ *  the start of the tick and whichever probe was added last marks its end.
+ *
+ *  <p>A tick that takes longer than the tick budget is counted as an overrun
+ *  both for the tick and for the most expensive system in that tick.  The
+ *  timings can be published as JMX MBeans.</p>
+ *
+ *  @author    agent
+ */
+public class SystemTimings {
+
+    static Logger log = LoggerFactory.getLogger(SystemTimings.class);
+
+    private final int windowSize;
+    private long tickBudget;
+    private final List<Probe> probes = new ArrayList<>();
+    private final SystemTiming tick;
+    private volatile IntSupplier tickBodies;
+    
+    private String domain;
+    private final List<ObjectName> registered = new ArrayList<>();
+ 
+    /**
+     *  Creates timings that keep the last 'windowSize' samples and 
+     *  that consider any tick longer than tickBudgetNanos to be an overrun.
+     */   
+    public SystemTimings( int windowSize, long tickBudgetNanos ) {
+        this.windowSize = windowSize;
+        this.tickBudget = tickBudgetNanos;
+        this.tick = new SystemTiming("tick", windowSize);
+        probes.add(new Probe(null, null, 0));
+    }
+ 
+    public void setTickBudget( long tickBudgetNanos ) {
+        this.tickBudget = tickBudgetNanos;
+    }
+    
+    public long getTickBudget() {
+        return tickBudget;
+    }
+ 
+    /**
+     *  Returns the probe that marks the beginning of the tick.  This should
+     *  be added to the GameSystemManager before any other system.
+     */   
+    public GameSystem begin() {
+        return probes.get(0);
+    }
+ 
+    /**
+     *  Returns a probe that will record the time since the previous probe 
+     *  under the specified name.  It should be added to the GameSystemManager
+     *  right after the system that it times.
+     */
+    public GameSystem probe( String name ) {
+        return probe(name, null);
+    }
+
+    /**
+     *  Returns a probe that will record the time since the previous probe 
+     *  under the specified name along with the number of bodies that the
+     *  system processed as reported by the supplier.
+     */
+    public GameSystem probe( String name, IntSupplier bodies ) {
+        Probe result = new Probe(new SystemTiming(name, windowSize), bodies, probes.size());
+        probes.add(result);
+        if( domain != null ) {
+            register(result.timing);
+        }
+        return result;
+    }
+ 
+    /**
+     *  Sets the supplier for the number of bodies reported for the 
+     *  whole tick.
+     */   
+    public void setTickBodies( IntSupplier tickBodies ) {
+        this.tickBodies = tickBodies;
+    }
+ 
+    public SystemTiming getTickTiming() {
+        return tick;
+    }
+    
+    public List<SystemTiming> getSystemTimings() {
+        List<SystemTiming> result = new ArrayList<>();
+        for( Probe p : probes ) {
+            if( p.timing != null ) {
+                result.add(p.timing);
+            }
+        }
+        return result;
+    }
+ 
+    /**
+     *  Registers an MBean for the tick and for each timed system with the 
+     *  platform MBean server under the specified domain.  Systems that are
+     *  probed later are registered as they are added.
+     */   
+    public void registerMBeans( String domain ) {
+        this.domain = domain;
+        register(tick);
+        for( SystemTiming timing : getSystemTimings() ) {
+            register(timing);
+        }
+    }
+    
+    public void unregisterMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for( ObjectName name : registered ) {
+            try {
+                server.unregisterMBean(name);
+            } catch( JMException e ) {
+                log.warn("Error unregistering:" + name, e);
+            }
+        }
+        registered.clear();
+        domain = null;
+    }
+    
+    private void register( SystemTiming timing ) {
+        try {
+            ObjectName name = new ObjectName(domain + ":type=GameSystem,name=" 
+                                             + ObjectName.quote(timing.getName()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(timing, name);
+            registered.add(name);
+        } catch( JMException e ) {
+            log.warn("Error registering MBean for:" + timing.getName(), e);
+        }
+    }
+    
+    public String getStats() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(tick);
+        for( SystemTiming timing : getSystemTimings() ) {
+            sb.append("\n");
+            sb.append(timing);
+        }
+        return sb.toString();
+    }
+ 
+    protected void endTick( long end ) {
+        long total = end - probes.get(0).last;
+        tick.record(total);
+        IntSupplier bodies = tickBodies;
+        if( bodies != null ) {
+            tick.setBodiesProcessed(bodies.getAsInt());
+        }
+        if( total <= tickBudget ) {
+            return;
+        }
+        tick.overrun();
+        
+        // Blame the most expensive system
+        Probe worst = null;
+        for( Probe p : probes ) {
+            if( p.timing != null && (worst == null || p.elapsed > worst.elapsed) ) {
+                worst = p;
+            }
+        }
+        if( worst != null ) {
+            worst.timing.overrun();
+        }
+    }
+ 
+    private class Probe extends AbstractGameSystem {
+        final SystemTiming timing;
+        final IntSupplier bodies;
+        final int index;
+        long last;
+        long elapsed;
+        
+        public Probe( SystemTiming timing, IntSupplier bodies, int index ) {
+            this.timing = timing;
+            this.bodies = bodies;
+            this.index = index;
+        }
+        
+        @Override
+        protected void initialize() {
+        }
+        
+        @Override
+        protected void terminate() {
+        }
+        
+        @Override
+        public void update( SimTime time ) {
+            last = System.nanoTime();
+            if( index == 0 ) {
+                return;
+            }
+            elapsed = last - probes.get(index - 1).last;
+            timing.record(elapsed);
+            if( bodies != null ) {
+                timing.setBodiesProcessed(bodies.getAsInt());
+            }
+            if( index == probes.size() - 1 ) {
+                endTick(last);
+            }
+        }
+    }
+}
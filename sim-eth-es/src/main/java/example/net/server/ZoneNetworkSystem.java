@@ -36,10 +36,21 @@
 
 package example.net.server;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.simsilica.es.EntityId;
+import com.simsilica.ethereal.TimeSource;
 import com.simsilica.ethereal.zone.ZoneManager;
+import com.simsilica.mathd.Quatd;
+import com.simsilica.mathd.Vec3d;
 import com.simsilica.sim.AbstractGameSystem;
 import com.simsilica.sim.SimTime;
 
+import example.GameConstants;
 import example.sim.Body;
 import example.sim.PhysicsListener;
 import example.sim.SimplePhysics;
@@ -49,25 +60,369 @@ import example.sim.SimplePhysics;
  *  system and then forwards those events to the SimEtheral zone manager,
  *  which in turn will package them up for the clients in an efficient way.
  *
+ *  <p>Bodies that are far from every observer (generally the players' ships)
+ *  are forwarded less often according to a distance curve.  The zone manager
+ *  is shared by all connections so the rate is picked from the nearest
+ *  observer.  Each observer also has a budget of updates per frame for the
+ *  bodies nearest to it.  When an observer goes over its budget, its distance
+ *  curve is shrunk until the update count falls back under the budget.
+ *  Observers are bucketed into a hash grid at the start of each frame with
+ *  cells as large as the distance curve so each body only checks the 
+ *  observers in its neighboring cells.  Bodies beyond the curve of every
+ *  observer use the last interval and don't count against any budget.</p>
+ *
+ *  <p>Updates that would not change anything after network quantization are
+ *  also suppressed.  The last sent position and rotation of each body are
+ *  kept, and the body is only sent again once it has moved or turned by at
+ *  least one quantization step.  The zone manager quantizes relative to each
+ *  zone's origin, so this is a threshold test rather than an exact comparison
+ *  of the wire values.  A keep-alive update is still sent every so often so
+ *  that newly connected clients can see objects that aren't moving.</p>
+ *
+ *  <p>When the zone manager is shared by systems on other threads, ie: one
+ *  per arena, the frame's updates are collected and then written to the 
+ *  zone manager as one zone frame at the end of the physics frame while
+ *  holding the zone manager's lock.</p>
+ *
  *  @author    Paul Speed
  */
 public class ZoneNetworkSystem extends AbstractGameSystem {
     
     private ZoneManager zones;
     private PhysicsObserver physicsObserver = new PhysicsObserver();
+    private SimplePhysics physics;
+    private int stateKey;
+    
+    private List<Observer> observers = new CopyOnWriteArrayList<>();
+    private ObserverGrid observerGrid = new ObserverGrid();
+    
+    private volatile double[] lodDistances = { 64, 128 };
+    private volatile int[] lodIntervals = { 1, 2, 4 };
+    private volatile int updateBudget = 0;
+    
+    private volatile double positionThreshold = GameConstants.POSITION_RESOLUTION;
+    private volatile double rotationThreshold = GameConstants.ROTATION_RESOLUTION;
+    private volatile int keepAliveInterval = 60;
+    private volatile int sendInterval = 1;
+    
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong deferredCount = new AtomicLong();
+    private final AtomicLong suppressedCount = new AtomicLong();
+    
+    // Only set when the zone manager is shared with other threads
+    private final TimeSource frameTime;
+    private final List<Body> pendingUpdates = new ArrayList<>();
+    private final List<Body> pendingRemoves = new ArrayList<>();
     
     public ZoneNetworkSystem( ZoneManager zones ) {
+        this(zones, null);
+    }
+ 
+    /**
+     *  Creates a zone network system for a zone manager that other threads
+     *  are also updating.  Each physics frame's updates are written as a
+     *  separate zone frame, synchronized on the zone manager, and stamped 
+     *  with the specified time source instead of this system's SimTime so 
+     *  that the frames from every thread share one timeline.  This should 
+     *  be the same time source that the EtherealHost uses.
+     */   
+    public ZoneNetworkSystem( ZoneManager zones, TimeSource frameTime ) {
         this.zones = zones;
+        this.frameTime = frameTime;
+    }
+ 
+    /**
+     *  Sets the distance curve used to reduce the update rate of far away
+     *  bodies.  Bodies closer to their nearest observer than distances[i] are 
+     *  sent every intervals[i] frames and bodies beyond the last distance are
+     *  sent every intervals[distances.length] frames.  Distances must be in
+     *  increasing order.  Defaults to every frame within 64 units, every 2nd 
+     *  frame within 128 units, and every 4th frame beyond that.
+     */   
+    public void setLodCurve( double[] distances, int[] intervals ) {
+        if( intervals.length != distances.length + 1 ) {
+            throw new IllegalArgumentException("Expected " + (distances.length + 1) + " intervals, got:" + intervals.length);
+        }
+        for( int interval : intervals ) {
+            if( interval < 1 ) {
+                throw new IllegalArgumentException("Intervals must be at least 1:" + interval);
+            }
+        }
+        this.lodDistances = distances.clone();
+        this.lodIntervals = intervals.clone();
+    }
+ 
+    public double[] getLodDistances() {
+        return lodDistances.clone();
+    }
+    
+    public int[] getLodIntervals() {
+        return lodIntervals.clone();
+    }
+ 
+    /**
+     *  Sets the maximum number of body updates per frame that should be 
+     *  attributed to any one observer.  0 means unlimited, which is the default.
+     */   
+    public void setUpdateBudget( int updateBudget ) {
+        this.updateBudget = updateBudget;
+    }
+    
+    public int getUpdateBudget() {
+        return updateBudget;
+    }
+ 
+    /**
+     *  Sets the smallest per-axis position change and per-component rotation change
+     *  that will cause a body to be sent.  Set both to 0 to send every change.
+     *  Defaults to GameConstants.POSITION_RESOLUTION and ROTATION_RESOLUTION.
+     */
+    public void setChangeThresholds( double positionThreshold, double rotationThreshold ) {
+        this.positionThreshold = positionThreshold;
+        this.rotationThreshold = rotationThreshold;
+    }
+    
+    public double getPositionThreshold() {
+        return positionThreshold;
+    }
+    
+    public double getRotationThreshold() {
+        return rotationThreshold;
+    }
+ 
+    /**
+     *  Sets the maximum number of frames that an unchanged body will go without
+     *  being sent.  Defaults to 60.
+     */   
+    public void setKeepAliveInterval( int keepAliveInterval ) {
+        this.keepAliveInterval = keepAliveInterval;
+    }
+    
+    public int getKeepAliveInterval() {
+        return keepAliveInterval;
+    }
+ 
+    /**
+     *  Sets a multiplier for every LOD interval so that all bodies are 
+     *  sent less often.  New bodies are still sent right away.  This is 
+     *  used to shed network load when the server is overloaded.  
+     *  Defaults to 1.
+     */   
+    public void setSendInterval( int sendInterval ) {
+        if( sendInterval < 1 ) {
+            throw new IllegalArgumentException("Send interval must be at least 1:" + sendInterval);
+        }
+        this.sendInterval = sendInterval;
+    }
+    
+    public int getSendInterval() {
+        return sendInterval;
+    }
+ 
+    /**
+     *  Adds an entity, usually a player's ship, whose distance to other bodies
+     *  determines how often those bodies are sent.  This can be called from any
+     *  thread.
+     */   
+    public void addObserver( EntityId id ) {
+        observers.add(new Observer(id));
+    }
+    
+    public void removeObserver( EntityId id ) {
+        for( Observer o : observers ) {
+            if( o.id.equals(id) ) {
+                observers.remove(o);
+            }
+        }
+    }
+ 
+    /**
+     *  Returns the total number of body updates that were forwarded to the 
+     *  zone manager.
+     */   
+    public long getSentCount() {
+        return sentCount.get();
+    }
+    
+    /**
+     *  Returns the total number of body updates that were skipped because
+     *  the bodies were too far from any observer to need them.
+     */
+    public long getDeferredCount() {
+        return deferredCount.get();
+    }
+    
+    /**
+     *  Returns the total number of body updates that were skipped because
+     *  they would not have changed anything on the wire.
+     */
+    public long getSuppressedCount() {
+        return suppressedCount.get();
+    }
+    
+    public String getStats() {
+        return "ZoneNetworkSystem sent:" + sentCount.get() + " deferred:" + deferredCount.get()
+                + " suppressed:" + suppressedCount.get()
+                + " observers:" + observers.size();
     }
      
     @Override
     protected void initialize() {
-        getSystem(SimplePhysics.class).addPhysicsListener(physicsObserver);
+        this.physics = getSystem(SimplePhysics.class);
+        this.stateKey = physics.createAttachmentKey();
+        physics.addPhysicsListener(physicsObserver);
     }
 
     @Override
     protected void terminate() {
-        getSystem(SimplePhysics.class).removePhysicsListener(physicsObserver);
+        physics.removePhysicsListener(physicsObserver);
+    }
+ 
+    /**
+     *  An entity that the update rates of the other bodies are relative to.
+     *  The position is the observer body's position at the start of the
+     *  current frame.
+     */   
+    private static class Observer {
+        final EntityId id;
+        final Vec3d pos = new Vec3d();
+        double scale = 1;
+        int frameUpdates;
+        
+        public Observer( EntityId id ) {
+            this.id = id;
+        }
+        
+        public void endFrame( int budget ) {
+            if( budget > 0 ) {
+                if( frameUpdates > budget ) {
+                    scale = Math.max(0.125, scale * 0.8);
+                } else if( frameUpdates < budget * 0.8 ) {
+                    scale = Math.min(1, scale * 1.1);
+                }
+            } else {
+                scale = 1;
+            }
+            frameUpdates = 0;
+        }
+    }
+ 
+    /**
+     *  A hash grid of the observers that currently have bodies.  The cell
+     *  size is the largest LOD distance so any observer close enough to 
+     *  matter to a body is in one of the 27 cells around it.  Hash collisions 
+     *  only mean that a few extra observers get distance checked.
+     */
+    private static class ObserverGrid {
+        private Observer[] active = new Observer[16];
+        private int count;
+        private int[] heads = new int[16];
+        private int[] next = new int[16];
+        private int mask;
+        private double cellSize;
+        private double rangeSq;
+        
+        public void build( List<Observer> observers, SimplePhysics physics, double range ) {
+            count = 0;
+            for( Observer o : observers ) {
+                Body body = physics.getBody(o.id);
+                if( body == null ) {
+                    continue;
+                }
+                o.pos.set(body.pos);
+                if( count == active.length ) {
+                    active = Arrays.copyOf(active, count * 2);
+                    next = Arrays.copyOf(next, count * 2);
+                }
+                active[count++] = o;
+            }
+            Arrays.fill(active, count, active.length, null);
+            
+            int tableSize = 16;
+            while( tableSize < count * 2 ) {
+                tableSize <<= 1;
+            }
+            if( heads.length < tableSize ) {
+                heads = new int[tableSize];
+            }
+            mask = heads.length - 1;
+            Arrays.fill(heads, -1);
+            
+            cellSize = Math.max(1, range);
+            rangeSq = range * range;
+            for( int i = 0; i < count; i++ ) {
+                Vec3d pos = active[i].pos;
+                int h = hash(cell(pos.x), cell(pos.y), cell(pos.z)) & mask;
+                next[i] = heads[h];
+                heads[h] = i;
+            }
+        }
+        
+        /**
+         *  Returns the nearest observer within range of the position, or null
+         *  if there isn't one.  The squared distance is left in distSq[0].
+         */
+        public Observer nearest( Vec3d pos, double[] distSq ) {
+            Observer nearest = null;
+            double nearestDistSq = rangeSq;
+            if( count > 0 ) {
+                int cx = cell(pos.x);
+                int cy = cell(pos.y);
+                int cz = cell(pos.z);
+                for( int x = cx - 1; x <= cx + 1; x++ ) {
+                    for( int y = cy - 1; y <= cy + 1; y++ ) {
+                        for( int z = cz - 1; z <= cz + 1; z++ ) {
+                            for( int i = heads[hash(x, y, z) & mask]; i >= 0; i = next[i] ) {
+                                Vec3d o = active[i].pos;
+                                double dx = o.x - pos.x;
+                                double dy = o.y - pos.y;
+                                double dz = o.z - pos.z;
+                                double d = dx * dx + dy * dy + dz * dz;
+                                if( d < nearestDistSq ) {
+                                    nearest = active[i];
+                                    nearestDistSq = d;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            distSq[0] = nearestDistSq;
+            return nearest;
+        }
+        
+        private int cell( double v ) {
+            return (int)Math.floor(v / cellSize);
+        }
+ 
+        private static int hash( int x, int y, int z ) {
+            return (x * 73856093) ^ (y * 19349663) ^ (z * 83492791);
+        }
+    }
+
+    /**
+     *  Per-body network state kept as a body attachment.
+     */
+    private static class NetState {
+        long lastSent = -1;
+        final Vec3d pos = new Vec3d();
+        final Quatd orientation = new Quatd();
+        
+        public boolean hasChanged( Body body, double posThreshold, double rotThreshold ) {
+            return Math.abs(body.pos.x - pos.x) >= posThreshold
+                || Math.abs(body.pos.y - pos.y) >= posThreshold
+                || Math.abs(body.pos.z - pos.z) >= posThreshold
+                || Math.abs(body.orientation.x - orientation.x) >= rotThreshold
+                || Math.abs(body.orientation.y - orientation.y) >= rotThreshold
+                || Math.abs(body.orientation.z - orientation.z) >= rotThreshold
+                || Math.abs(body.orientation.w - orientation.w) >= rotThreshold;
+        }
+        
+        public void sent( long frame, Body body ) {
+            lastSent = frame;
+            pos.set(body.pos);
+            orientation.set(body.orientation);
+        }
     }
     
     /**
@@ -76,32 +431,143 @@ public class ZoneNetworkSystem extends AbstractGameSystem {
      */
     private class PhysicsObserver implements PhysicsListener {
  
+        private long frame;
+        private double[] distances;
+        private int[] intervals;
+        private int budget;
+        private double posThreshold;
+        private double rotThreshold;
+        private int keepAlive;
+        private int sendMultiplier;
+        private long sent;
+        private long deferred;
+        private long suppressed;
+        private double[] distSq = new double[1];
+ 
         @Override   
         public void beginFrame( SimTime time ) {
-            zones.beginUpdate(time.getTime());
+            if( frameTime == null ) {
+                zones.beginUpdate(time.getTime());
+            }
+            frame++;
+            
+            // Grab a consistent set of settings for the whole frame
+            distances = lodDistances;
+            intervals = lodIntervals;
+            budget = updateBudget;
+            posThreshold = positionThreshold;
+            rotThreshold = rotationThreshold;
+            keepAlive = keepAliveInterval;
+            sendMultiplier = sendInterval;
+            
+            // Observers are never scaled up so the last distance is as far
+            // as any of them can affect the interval
+            double range = distances.length == 0 ? 0 : distances[distances.length - 1];
+            observerGrid.build(observers, physics, range);
         }
  
         @Override   
         public void addBody( Body body ) {
-            // Don't really care about this
+            body.setAttachment(stateKey, new NetState());
         }
         
         @Override   
         public void updateBody( Body body ) {
-            zones.updateEntity(body.bodyId.getId(), true, body.pos, body.orientation, body.bounds);   
-        }
+            long id = body.bodyId.getId();
+            
+            // Find the nearest observer that is close enough to matter
+            Observer nearest = observerGrid.nearest(body.pos, distSq);
+ 
+            int interval = intervals[intervals.length - 1];
+            if( nearest != null ) {
+                double dist = Math.sqrt(distSq[0]) / nearest.scale;
+                for( int i = 0; i < distances.length; i++ ) {
+                    if( dist < distances[i] ) {
+                        interval = intervals[i];
+                        break;
+                    }
+                }
+            }
+            interval *= sendMultiplier;
  
+            NetState state = body.getAttachment(stateKey);
+            boolean isNew = state == null || state.lastSent < 0;
+            if( interval > 1 && !isNew ) {
+                // Stagger the bodies by ID so that they don't all send 
+                // on the same frame but also catch the case where the
+                // interval has changed and we've skipped too many frames.
+                if( (frame + id) % interval != 0 && frame - state.lastSent < interval ) {
+                    deferred++;
+                    return;
+                }
+            }
+            
+            if( state != null ) {
+                if( !isNew && frame - state.lastSent < keepAlive 
+                    && !state.hasChanged(body, posThreshold, rotThreshold) ) {
+                    suppressed++;
+                    return;
+                }
+                state.sent(frame, body);
+            }
+            if( nearest != null ) {
+                nearest.frameUpdates++;
+            }
+            sent++;
+            if( frameTime != null ) {
+                pendingUpdates.add(body);
+            } else {
+                zones.updateEntity(id, true, body.pos, body.orientation, body.bounds);
+            }   
+        }
+
         @Override   
         public void removeBody( Body body ) {
-            zones.remove(body.bodyId.getId());
+            body.setAttachment(stateKey, null);
+            if( frameTime != null ) {
+                pendingRemoves.add(body);
+            } else {
+                zones.remove(body.bodyId.getId());
+            }
+        }
+ 
+        /**
+         *  Writes the collected updates to the shared zone manager as their
+         *  own zone frame.  Physics is done moving the bodies by now so
+         *  their current state is what was published this frame.
+         */       
+        private void flush() {
+            synchronized(zones) {
+                zones.beginUpdate(frameTime.getTime());
+                for( Body body : pendingRemoves ) {
+                    zones.remove(body.bodyId.getId());
+                }
+                for( Body body : pendingUpdates ) {
+                    zones.updateEntity(body.bodyId.getId(), true, body.pos, body.orientation, body.bounds);
+                }
+                zones.endUpdate();
+            }
+            pendingRemoves.clear();
+            pendingUpdates.clear();
         }
     
         @Override   
         public void endFrame( SimTime time ) {
-            zones.endUpdate();
+            if( frameTime != null ) {
+                flush();
+            } else {
+                zones.endUpdate();
+            }
+            for( Observer o : observers ) {
+                o.endFrame(budget);
+            }
+            sentCount.addAndGet(sent);
+            deferredCount.addAndGet(deferred);
+            suppressedCount.addAndGet(suppressed);
+            sent = 0;
+            deferred = 0;
+            suppressed = 0;
         } 
         
     }
 }
-
-
@@ -50,6 +50,21 @@ import example.es.*;
 public class BasicEnvironment extends AbstractGameSystem {
 
     private EntityData ed;
+    private Vec3d origin;
+    private ArenaId arena;
+    
+    public BasicEnvironment() {
+        this(new Vec3d(), null);
+    }
+ 
+    /**
+     *  Creates an environment centered on the specified origin whose
+     *  entities are tagged with the specified arena, if not null.
+     */   
+    public BasicEnvironment( Vec3d origin, ArenaId arena ) {
+        this.origin = origin;
+        this.arena = arena;
+    }
     
     @Override
     protected void initialize() {
@@ -73,7 +88,10 @@ public class BasicEnvironment extends AbstractGameSystem {
             for( int y = 0; y < 4; y++ ) {
                 for( int z = 0; z < 4; z++ ) {
                     Vec3d pos = new Vec3d(offset + x * spacing, offset + y * spacing, offset + z * spacing);
-                    GameEntities.createGravSphere(pos, 10, ed);
+                    EntityId sphere = GameEntities.createGravSphere(pos.addLocal(origin), 10, ed);
+                    if( arena != null ) {
+                        ed.setComponent(sphere, arena);
+                    }
                 }
             }
         }
@@ -66,6 +66,31 @@ public class Body {
     public Quatd orientation = new Quatd();
     public volatile ControlDriver driver; 
  
+    /**
+     *  The dense slot index of this body in the SimplePhysics BodyStore
+     *  or -1 if the body is not currently packed.
+     */
+    public int slot = -1;
+ 
+    /**
+     *  Whether this body is currently being integrated and published every
+     *  frame.  See SimplePhysics.setSleepTicks().
+     */ 
+    public volatile Activity activity = Activity.AWAKE;
+    
+    /**
+     *  The number of consecutive frames that this body has been at rest.
+     */
+    public int restTicks;
+    
+    private Quatd lastOrientation = new Quatd();
+ 
+    /**
+     *  Per-body state that other systems have attached using keys
+     *  from SimplePhysics.createAttachmentKey().
+     */
+    private Object[] attachments;
+ 
     public Body( EntityId bodyId ) {
         this.bodyId = bodyId;
     }
@@ -80,6 +105,97 @@ public class Body {
         this.orientation.set(pos.getFacing());
     }
  
+    /**
+     *  Attaches a system-specific value to this body.  This lets physics 
+     *  listeners keep per-body state without having to look it up in a map
+     *  every frame.  Keys are created with SimplePhysics.createAttachmentKey().
+     *  This is not thread safe and should only be called from the simulation
+     *  thread.
+     */
+    public void setAttachment( int key, Object value ) {
+        if( attachments == null || key >= attachments.length ) {
+            if( value == null ) {
+                return;
+            }
+            Object[] array = new Object[key + 1];
+            if( attachments != null ) {
+                System.arraycopy(attachments, 0, array, 0, attachments.length);
+            }
+            attachments = array;
+        }
+        attachments[key] = value;
+    }
+ 
+    /**
+     *  Returns the value attached to this body for the specified key or null
+     *  if nothing has been attached.
+     */   
+    @SuppressWarnings("unchecked")
+    public <T> T getAttachment( int key ) {
+        if( attachments == null || key >= attachments.length ) {
+            return null;
+        }
+        return (T)attachments[key];
+    }
+ 
+    public boolean isAwake() {
+        return activity == Activity.AWAKE;
+    }
+ 
+    /**
+     *  Forces the body to be awake regardless of its current activity state.
+     *  This is how systems that affect bodies from the outside (collisions, 
+     *  explosions, etc.) should wake up sleeping or static bodies.
+     */   
+    public void wake() {
+        restTicks = 0;
+        activity = Activity.AWAKE;
+    }
+ 
+    /**
+     *  Checks to see if the body is at rest and either counts it towards
+     *  going to sleep or wakes it up if it has started moving.  A body is 
+     *  at rest when its velocity and acceleration are below the threshold
+     *  and its orientation has not changed since the last check.  Returns
+     *  true if the body is awake after the check.
+     */   
+    public boolean updateActivity( int sleepTicks, double restThreshold ) {
+        double threshold = restThreshold * restThreshold;
+        boolean atRest = velocity.lengthSq() <= threshold 
+                        && acceleration.lengthSq() <= threshold
+                        && orientation.x == lastOrientation.x
+                        && orientation.y == lastOrientation.y
+                        && orientation.z == lastOrientation.z
+                        && orientation.w == lastOrientation.w;
+        lastOrientation.set(orientation);
+        
+        if( !atRest ) {
+            if( activity == Activity.SLEEPING ) {
+                activity = Activity.AWAKE;
+            }
+            restTicks = 0;
+            return activity == Activity.AWAKE;
+        }
+        
+        if( activity != Activity.AWAKE ) {
+            return false;
+        }
+        
+        if( ++restTicks < sleepTicks ) {
+            return true;
+        }
+
+        // Go to sleep exactly where we are        
+        velocity.set(0, 0, 0);
+        acceleration.set(0, 0, 0);
+        if( invMass == 0 && driver == null ) {
+            activity = Activity.STATIC;
+        } else {
+            activity = Activity.SLEEPING;
+        }
+        return false;
+    }
+ 
     public void integrate( double stepTime ) {
         // Integrate velocity
         velocity.addScaledVectorLocal(acceleration, stepTime);
@@ -94,4 +210,30 @@ public class Body {
         // other things know where the object is for real
         bounds.setCenter(pos);   
     }
+ 
+    /**
+     *  Moves the body back inside the specified box if it has left it and
+     *  stops its velocity along any axis where it was outside.  Returns true
+     *  if the body was moved.  The caller is responsible for updating the 
+     *  bounds.
+     */   
+    public boolean clamp( Vec3d min, Vec3d max ) {
+        boolean changed = false;
+        if( pos.x < min.x || pos.x > max.x ) {
+            pos.x = Math.max(min.x, Math.min(max.x, pos.x));
+            velocity.x = 0;
+            changed = true;
+        }
+        if( pos.y < min.y || pos.y > max.y ) {
+            pos.y = Math.max(min.y, Math.min(max.y, pos.y));
+            velocity.y = 0;
+            changed = true;
+        }
+        if( pos.z < min.z || pos.z > max.z ) {
+            pos.z = Math.max(min.z, Math.min(max.z, pos.z));
+            velocity.z = 0;
+            changed = true;
+        }
+        return changed;
+    }
 }
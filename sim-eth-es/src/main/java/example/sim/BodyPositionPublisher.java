@@ -41,6 +41,7 @@ import com.simsilica.mathd.*;
 import com.simsilica.sim.*;
 
 import example.es.BodyPosition;
+import example.es.PositionHistory;
 
 
 /**
@@ -56,13 +57,18 @@ import example.es.BodyPosition;
  *  to add its object update events from the network.  The BodyPosition
  *  component itself is actually transferred empty.
  *
+ *  The history buffer is attached to the Body when it is added so that
+ *  the per-frame updates don't have to look up the component.
+ *
  *  @author    Paul Speed
  */
 public class BodyPositionPublisher extends AbstractGameSystem  
                                    implements PhysicsListener {
  
     private EntityData ed;
+    private SimplePhysics physics;
     private SimTime time;
+    private int historyKey;
     
     public BodyPositionPublisher() { 
     }
@@ -70,13 +76,15 @@ public class BodyPositionPublisher extends AbstractGameSystem
     @Override
     protected void initialize() {
         this.ed = getSystem(EntityData.class);
+        this.physics = getSystem(SimplePhysics.class);
+        this.historyKey = physics.createAttachmentKey();
         
-        getSystem(SimplePhysics.class).addPhysicsListener(this);
+        physics.addPhysicsListener(this);
     }
 
     @Override
     protected void terminate() {
-        getSystem(SimplePhysics.class).removePhysicsListener(this);
+        physics.removePhysicsListener(this);
     }
    
     @Override
@@ -88,26 +96,33 @@ public class BodyPositionPublisher extends AbstractGameSystem
     public void addBody( Body body ) {
     
         // The server side needs hardly any backlog.  We'll use 3 just in case
-        // but 2 (even possibly 1) should be fine.  If we ever need to rewind
-        // for shot resolution then we can increase the backlog as necessary
+        // but 2 (even possibly 1) should be fine.  Shot resolution rewinds
+        // using the RewindSystem's own history instead of this one.
         BodyPosition bPos = new BodyPosition(3);
         
         // Note: we could have also initialized the body position here but
         // we've already done it in SimplePhysics's EntityContainer.
         ed.setComponent(body.bodyId, bPos);
+        
+        // Keep the shared history buffer with the body so we don't have
+        // to look it up every frame
+        body.setAttachment(historyKey, bPos.getHistory());
     }
     
     @Override
     public void updateBody( Body body ) {
-        BodyPosition pos = ed.getComponent(body.bodyId, BodyPosition.class);
-        pos.addFrame(time.getTime(), body.pos.toVector3f(), body.orientation.toQuaternion(), true);
+        PositionHistory history = body.getAttachment(historyKey);
+        history.addFrame(time.getTime(), body.pos, body.orientation, true);
     }
  
     @Override
     public void removeBody( Body body ) {
         // Give one last position update with the visibility shut off
-        BodyPosition pos = ed.getComponent(body.bodyId, BodyPosition.class);
-        pos.addFrame(time.getTime(), body.pos.toVector3f(), body.orientation.toQuaternion(), false);
+        PositionHistory history = body.getAttachment(historyKey);
+        if( history != null ) {
+            history.addFrame(time.getTime(), body.pos, body.orientation, false);
+            body.setAttachment(historyKey, null);
+        }
     }
 
     @Override
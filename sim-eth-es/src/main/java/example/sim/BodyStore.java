@@ -0,0 +1,284 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.sim;
+
+import java.util.Arrays;
+
+import com.simsilica.mathd.Vec3d;
+
+/**
+ *  Packed structure-of-arrays storage for the integration state of
+ *  physics bodies.  Position, velocity, and acceleration are kept in
+ *  primitive double columns indexed by a dense slot ID so that the
+ *  integration pass walks contiguous memory instead of chasing the
+ *  per-body Vec3d references.  Bodies are assigned a slot when added
+ *  and the last slot is swapped into any released slot so that the
+ *  active range is always [0, size).  Each slot also tracks whether its
+ *  body is awake so that the integration pass can skip sleeping bodies.
+ *
+ *  <p>The Body objects are still the API that drivers and physics
+ *  listeners see.  SimplePhysics loads driver changes into the store
+ *  before integration and stores the integrated results back to the
+ *  Body afterwards.</p>
+ *
+ *  <p>This is not thread safe and is only meant to be used from the
+ *  physics/simulation thread.</p>
+ *
+ *  @author    agent
+ */
+public class BodyStore {
+
+    private Body[] bodies;
+    private int size;
+    
+    private double[] posX;
+    private double[] posY;
+    private double[] posZ;
+    private double[] velX;
+    private double[] velY;
+    private double[] velZ;
+    private double[] accX;
+    private double[] accY;
+    private double[] accZ;
+    private boolean[] awake;
+    
+    public BodyStore() {
+        this(1024);
+    }
+    
+    public BodyStore( int initialCapacity ) {
+        initialCapacity = Math.max(16, initialCapacity);
+        this.bodies = new Body[initialCapacity];
+        this.posX = new double[initialCapacity];
+        this.posY = new double[initialCapacity];
+        this.posZ = new double[initialCapacity];
+        this.velX = new double[initialCapacity];
+        this.velY = new double[initialCapacity];
+        this.velZ = new double[initialCapacity];
+        this.accX = new double[initialCapacity];
+        this.accY = new double[initialCapacity];
+        this.accZ = new double[initialCapacity];
+        this.awake = new boolean[initialCapacity];
+    }
+ 
+    /**
+     *  Returns the number of bodies currently packed into the store.
+     */   
+    public int size() {
+        return size;
+    }
+    
+    public int getCapacity() {
+        return bodies.length;
+    }
+ 
+    /**
+     *  Returns the body that currently occupies the specified slot. 
+     */   
+    public Body getBody( int slot ) {
+        return bodies[slot];
+    }
+ 
+    /**
+     *  Returns true if the body in the specified slot was awake the last
+     *  time it was loaded into the store.
+     */   
+    public boolean isAwake( int slot ) {
+        return awake[slot];
+    }
+ 
+    /**
+     *  Assigns the body a slot at the end of the packed range and
+     *  copies its current state into the columns.
+     */   
+    public int add( Body body ) {
+        if( body.slot >= 0 ) {
+            throw new IllegalArgumentException("Body already has a slot:" + body);
+        }
+        if( size == bodies.length ) {
+            grow(size * 2);
+        }
+        int slot = size++;
+        bodies[slot] = body;
+        body.slot = slot;
+        load(body);
+        posX[slot] = body.pos.x;
+        posY[slot] = body.pos.y;
+        posZ[slot] = body.pos.z;
+        return slot;
+    }
+ 
+    /**
+     *  Releases the body's slot, moving the last body in the packed
+     *  range into the hole so that the columns stay dense.
+     */   
+    public void remove( Body body ) {
+        int slot = body.slot;
+        if( slot < 0 ) {
+            return;
+        }
+        int last = --size;
+        if( slot != last ) {
+            Body moved = bodies[last];
+            bodies[slot] = moved;
+            moved.slot = slot;
+            posX[slot] = posX[last];
+            posY[slot] = posY[last];
+            posZ[slot] = posZ[last];
+            velX[slot] = velX[last];
+            velY[slot] = velY[last];
+            velZ[slot] = velZ[last];
+            accX[slot] = accX[last];
+            accY[slot] = accY[last];
+            accZ[slot] = accZ[last];
+            awake[slot] = awake[last];
+        }
+        bodies[last] = null;
+        body.slot = -1;
+    }
+ 
+    /**
+     *  Copies the velocity, acceleration, and activity state of the body 
+     *  into the store.  Called for bodies whose ControlDriver may have 
+     *  changed them or whose activity state has changed.
+     */   
+    public void load( Body body ) {
+        int slot = body.slot;
+        velX[slot] = body.velocity.x;
+        velY[slot] = body.velocity.y;
+        velZ[slot] = body.velocity.z;
+        accX[slot] = body.acceleration.x;
+        accY[slot] = body.acceleration.y;
+        accZ[slot] = body.acceleration.z;
+        awake[slot] = body.isAwake();
+    }
+ 
+    /**
+     *  Integrates acceleration and velocity for all awake packed bodies
+     *  in one pass over the columns.  This is the same math as
+     *  Body.integrate().
+     */   
+    public void integrate( double stepTime ) {
+        integrate(0, size, stepTime);
+    }
+ 
+    /**
+     *  Integrates the awake bodies in the slot range [start, end).
+     */   
+    public void integrate( int start, int end, double stepTime ) {
+        for( int i = start; i < end; i++ ) {
+            if( !awake[i] ) {
+                continue;
+            }
+            velX[i] += accX[i] * stepTime;
+            velY[i] += accY[i] * stepTime;
+            velZ[i] += accZ[i] * stepTime;
+            posX[i] += velX[i] * stepTime;
+            posY[i] += velY[i] * stepTime;
+            posZ[i] += velZ[i] * stepTime;
+        }
+    }
+ 
+    /**
+     *  Moves any awake bodies in the slot range [start, end) that are outside 
+     *  of the specified box back onto its edge and stops their velocity along 
+     *  that axis.  This is the same as Body.clamp().
+     */   
+    public void clamp( int start, int end, Vec3d min, Vec3d max ) {
+        clamp(start, end, posX, velX, min.x, max.x);
+        clamp(start, end, posY, velY, min.y, max.y);
+        clamp(start, end, posZ, velZ, min.z, max.z);
+    }
+    
+    private void clamp( int start, int end, double[] pos, double[] vel, double min, double max ) {
+        for( int i = start; i < end; i++ ) {
+            if( !awake[i] ) {
+                continue;
+            }
+            if( pos[i] < min ) {
+                pos[i] = min;
+                vel[i] = 0;
+            } else if( pos[i] > max ) {
+                pos[i] = max;
+                vel[i] = 0;
+            }
+        }
+    }
+ 
+    /**
+     *  Writes the integrated position and velocity back to all of the 
+     *  awake packed Body objects and updates their bounds.
+     */   
+    public void store() {
+        store(0, size);
+    }
+ 
+    /**
+     *  Writes the integrated position and velocity back to the awake 
+     *  bodies in the slot range [start, end).
+     */   
+    public void store( int start, int end ) {
+        for( int i = start; i < end; i++ ) {
+            if( !awake[i] ) {
+                continue;
+            }
+            Body b = bodies[i];
+            b.pos.set(posX[i], posY[i], posZ[i]);
+            b.velocity.set(velX[i], velY[i], velZ[i]);
+            b.bounds.setCenter(b.pos);
+        }
+    }
+    
+    private void grow( int capacity ) {
+        bodies = Arrays.copyOf(bodies, capacity);
+        posX = Arrays.copyOf(posX, capacity);
+        posY = Arrays.copyOf(posY, capacity);
+        posZ = Arrays.copyOf(posZ, capacity);
+        velX = Arrays.copyOf(velX, capacity);
+        velY = Arrays.copyOf(velY, capacity);
+        velZ = Arrays.copyOf(velZ, capacity);
+        accX = Arrays.copyOf(accX, capacity);
+        accY = Arrays.copyOf(accY, capacity);
+        accZ = Arrays.copyOf(accZ, capacity);
+        awake = Arrays.copyOf(awake, capacity);
+    }
+ 
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[size=" + size + ", capacity=" + bodies.length + "]";
+    }
+}
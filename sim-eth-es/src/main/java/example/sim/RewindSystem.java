@@ -0,0 +1,717 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.sim;
+
+import java.util.*;
+
+import com.simsilica.es.EntityId;
+import com.simsilica.mathd.*;
+import com.simsilica.sim.*;
+
+/**
+ *  Keeps a short history of all physics body positions so that shots
+ *  and other hit checks can be resolved against the world as a particular
+ *  client saw it.  Each recorded frame has its own spatial hash so that
+ *  ray and sphere queries only look at the bodies near the query instead
+ *  of scanning every body.
+ *
+ *  <p>Queries at times between two recorded frames interpolate the body
+ *  positions.  Bodies that are not published in a frame (sleeping bodies, 
+ *  for example) carry forward their last known position.</p>
+ *
+ *  <p>The frames are recorded on the simulation thread and queries must
+ *  also be made from the simulation thread, ie: from a game system's
+ *  update() or from a physics or contact listener.</p>
+ *
+ *  @author    agent
+ */
+public class RewindSystem extends AbstractGameSystem 
+                          implements PhysicsListener {
+
+    private SimplePhysics physics;
+    private int indexKey;
+ 
+    private Frame[] frames;
+    private long frameCount;
+    private Frame current;
+    private double cellSize;
+    private long viewDelay = 100 * 1000000L; 
+    
+    // Dense per-body indexes that are shared across frames
+    private int nextIndex;
+    private int[] freeIndexes = new int[16];
+    private int freeCount;
+ 
+    // Query scratch space
+    private int[] stamps = new int[0];
+    private int stamp;
+    private int[] candidates = new int[64];
+    private Vec3d temp = new Vec3d();
+    private RayWalk ray = new RayWalk();
+ 
+    /**
+     *  Creates a rewind system that keeps 64 frames of history, about one 
+     *  second at the default 60 FPS game loop, using 16 unit hash cells.
+     */   
+    public RewindSystem() {
+        this(64, 16);
+    }
+ 
+    /**
+     *  Creates a rewind system that keeps the specified number of frames
+     *  of history and indexes them using the specified cell size.  The cell
+     *  size should be at least as large as the largest objects.
+     */   
+    public RewindSystem( int historySize, double cellSize ) {
+        this.frames = new Frame[historySize];
+        for( int i = 0; i < historySize; i++ ) {
+            frames[i] = new Frame();
+        }
+        this.cellSize = cellSize;
+    }
+ 
+    /**
+     *  Sets how far in the past, in nanoseconds, clients display the world 
+     *  relative to the time that they've received.  This is added to the
+     *  one-way latency when calculating rewind times.  Defaults to 100 ms.
+     */   
+    public void setViewDelay( long viewDelay ) {
+        this.viewDelay = viewDelay;
+    }
+    
+    public long getViewDelay() {
+        return viewDelay;
+    }
+ 
+    /**
+     *  Returns the time of the world that a client was looking at when it
+     *  sent a message that the server received at the specified time.  The 
+     *  ping time is the connection's round trip time in nanoseconds, for
+     *  example from the SimEthereal connection stats' getAveragePingTime().
+     */   
+    public long getRewindTime( long receivedTime, long pingTime ) {
+        return receivedTime - pingTime / 2 - viewDelay;
+    }
+ 
+    /**
+     *  Returns the time of the oldest frame that can be queried or -1 if
+     *  there is no history yet.
+     */   
+    public long getOldestTime() {
+        if( frameCount == 0 ) {
+            return -1;
+        }
+        return frame(Math.max(0, frameCount - frames.length)).time;
+    }
+ 
+    @Override
+    protected void initialize() {
+        this.physics = getSystem(SimplePhysics.class);
+        this.indexKey = physics.createAttachmentKey();
+        physics.addPhysicsListener(this);
+    }
+
+    @Override
+    protected void terminate() {
+        physics.removePhysicsListener(this);
+    }
+ 
+    @Override
+    public void beginFrame( SimTime time ) {
+        Frame prev = frameCount == 0 ? null : frame(frameCount - 1);
+        current = frame(frameCount);
+        current.begin(time.getTime(), prev, nextIndex);
+    }
+ 
+    @Override
+    public void addBody( Body body ) {
+        int index;
+        if( freeCount > 0 ) {
+            index = freeIndexes[--freeCount];
+        } else {
+            index = nextIndex++;
+            current.extend(nextIndex);
+        }
+        body.setAttachment(indexKey, index);
+        current.set(index, body);
+    }
+    
+    @Override
+    public void updateBody( Body body ) {
+        Integer index = body.getAttachment(indexKey);
+        current.set(index, body);
+    }
+ 
+    @Override
+    public void removeBody( Body body ) {
+        Integer index = body.getAttachment(indexKey);
+        if( index == null ) {
+            return;
+        }
+        current.ids[index] = -1;
+        body.setAttachment(indexKey, null);
+        if( freeCount == freeIndexes.length ) {
+            freeIndexes = Arrays.copyOf(freeIndexes, freeCount * 2);
+        }
+        freeIndexes[freeCount++] = index;
+    }
+    
+    @Override
+    public void endFrame( SimTime time ) {
+        Frame prev = frameCount == 0 ? null : frame(frameCount - 1);
+        current.buildIndex(cellSize, prev);
+        frameCount++;
+        current = null;
+    }
+ 
+    /**
+     *  Casts a ray against the bodies as they were at the specified time and 
+     *  fills in the result with the closest hit.  The body with ignoreId is 
+     *  skipped, generally the shooter.  Times outside of the history are 
+     *  clamped to the oldest or newest frame.  Returns true if something was hit.
+     *
+     *  <p>The ray walks the hash cells in order from the origin and stops as
+     *  soon as it passes the closest hit found so far.</p>
+     */   
+    public boolean raycast( long time, Vec3d origin, Vec3d dir, double maxDistance, 
+                            EntityId ignoreId, Hit result ) {
+        long seq = findFrame(time);
+        if( seq < 0 ) {
+            return false;
+        }
+        Frame a = frame(seq);
+        Frame b = next(seq, time);
+        
+        double len = dir.length();
+        if( len == 0 ) {
+            return false;
+        }
+        ray.begin(a, b, lerpAmount(a, b, time), origin, dir.x / len, dir.y / len, dir.z / len, 
+                  maxDistance, ignoreId == null ? -1 : ignoreId.getId());
+        ray.walk();
+        if( ray.best < 0 ) {
+            return false;
+        }
+        if( result != null ) {
+            double dist = ray.bestDist;
+            result.entityId = new EntityId(a.ids[ray.best]);
+            result.distance = dist;
+            result.time = time;
+            result.point.set(origin.x + ray.dx * dist, origin.y + ray.dy * dist, origin.z + ray.dz * dist);
+        }
+        return true;
+    }
+ 
+    /**
+     *  Adds the IDs of all bodies that overlapped the specified sphere at
+     *  the specified time to the results and returns the number added.  
+     *  Times outside of the history are clamped to the oldest or newest frame.
+     */
+    public int sphereQuery( long time, Vec3d center, double radius, Collection<EntityId> results ) {
+        long seq = findFrame(time);
+        if( seq < 0 ) {
+            return 0;
+        }
+        Frame a = frame(seq);
+        Frame b = next(seq, time);
+        double t = lerpAmount(a, b, time);
+        
+        double reach = radius + a.maxRadius + (b == null ? 0 : b.maxDisplacement);
+        int count = gatherCandidates(a, 
+                                     center.x - reach, center.y - reach, center.z - reach,
+                                     center.x + reach, center.y + reach, center.z + reach);
+        int added = 0;
+        for( int i = 0; i < count; i++ ) {
+            int index = candidates[i];
+            Vec3d pos = position(a, b, t, index, temp);
+            double r = radius + a.radius[index];
+            double x = pos.x - center.x;
+            double y = pos.y - center.y;
+            double z = pos.z - center.z;
+            if( x * x + y * y + z * z <= r * r ) {
+                results.add(new EntityId(a.ids[index]));
+                added++;
+            }
+        }
+        return added;
+    }
+ 
+    private Frame frame( long seq ) {
+        return frames[(int)(seq % frames.length)];
+    }
+ 
+    /**
+     *  Returns the sequence number of the newest frame at or before the
+     *  specified time, the oldest frame if the time is older than the history,
+     *  or -1 if there is no history.
+     */   
+    private long findFrame( long time ) {
+        if( frameCount == 0 ) {
+            return -1;
+        }
+        long oldest = Math.max(0, frameCount - frames.length);
+        long seq = frameCount - 1;
+        while( seq > oldest && frame(seq).time > time ) {
+            seq--;
+        }
+        return seq;
+    }
+ 
+    /**
+     *  Returns the frame after seq if time falls between the two frames.
+     */   
+    private Frame next( long seq, long time ) {
+        if( seq + 1 >= frameCount ) {
+            return null;
+        }
+        Frame a = frame(seq);
+        if( time <= a.time ) {
+            return null;
+        }
+        return frame(seq + 1);
+    }
+    
+    private double lerpAmount( Frame a, Frame b, long time ) {
+        if( b == null || b.time <= a.time ) {
+            return 0;
+        }
+        return (double)(time - a.time) / (b.time - a.time); 
+    }
+ 
+    private Vec3d position( Frame a, Frame b, double t, int index, Vec3d store ) {
+        store.set(a.x[index], a.y[index], a.z[index]);
+        if( b != null && index < b.count && b.ids[index] == a.ids[index] ) {
+            store.x += (b.x[index] - store.x) * t;
+            store.y += (b.y[index] - store.y) * t;
+            store.z += (b.z[index] - store.z) * t;
+        }
+        return store;
+    }
+ 
+    /**
+     *  Collects the unique indexes of the bodies in frame 'a' whose hash
+     *  cells overlap the specified box into the candidates array.  If the 
+     *  box covers more cells than there are bodies then all bodies are
+     *  returned instead.
+     */    
+    private int gatherCandidates( Frame a, double minX, double minY, double minZ,
+                                  double maxX, double maxY, double maxZ ) {
+        nextStamp(a);
+        int count = 0;
+        
+        int x1 = cell(minX);
+        int y1 = cell(minY);
+        int z1 = cell(minZ);
+        int x2 = cell(maxX);
+        int y2 = cell(maxY);
+        int z2 = cell(maxZ);
+        long cells = (long)(x2 - x1 + 1) * (y2 - y1 + 1) * (z2 - z1 + 1);
+        if( cells >= a.count ) {
+            // Cheaper to just look at everything
+            for( int i = 0; i < a.count; i++ ) {
+                if( a.ids[i] >= 0 ) {
+                    count = addCandidate(i, count);
+                }
+            }
+            return count;
+        }
+        
+        for( int x = x1; x <= x2; x++ ) {
+            for( int y = y1; y <= y2; y++ ) {
+                for( int z = z1; z <= z2; z++ ) {
+                    // Hash collisions just mean extra candidates so we
+                    // still need the stamps to avoid duplicates
+                    for( int i = a.heads[hash(x, y, z) & a.mask]; i >= 0; i = a.next[i] ) {
+                        if( stamps[i] != stamp ) {
+                            stamps[i] = stamp;
+                            count = addCandidate(i, count);
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+    
+    private int addCandidate( int index, int count ) {
+        if( count == candidates.length ) {
+            candidates = Arrays.copyOf(candidates, count * 2);
+        }
+        candidates[count] = index;
+        return count + 1;
+    }
+ 
+    /**
+     *  Bumps the query stamp so that bodies can be marked as visited
+     *  during one query without clearing the stamps array.
+     */   
+    private void nextStamp( Frame a ) {
+        if( stamps.length < a.count ) {
+            stamps = new int[a.ids.length];
+        }
+        if( ++stamp == 0 ) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+    }
+ 
+    private int cell( double v ) {
+        return (int)Math.floor(v / cellSize);
+    }
+    
+    private static int hash( int x, int y, int z ) {
+        return (x * 73856093) ^ (y * 19349663) ^ (z * 83492791);
+    }
+ 
+    /**
+     *  The result of a rewind raycast.
+     */   
+    public static class Hit {
+        public EntityId entityId;
+        public long time;
+        public double distance;
+        public Vec3d point = new Vec3d();
+        
+        @Override
+        public String toString() {
+            return "Hit[entityId=" + entityId + ", time=" + time + ", distance=" + distance + ", point=" + point + "]";
+        }
+    }
+ 
+    /**
+     *  Scratch state for one raycast.  The ray is walked through the hash
+     *  cells with a 3D DDA.  A body can be hit from any cell within 'reach' 
+     *  of its center so each visited cell is padded by k cells on every axis.  
+     *  Stepping one cell along an axis only brings in the slab of padded 
+     *  cells on the far side, so that is all that gets tested.
+     *
+     *  <p>Any body hit at distance d has its center within reach of the ray 
+     *  point at d and so is in the padding of the cell the ray entered at or 
+     *  before d.  That means the walk can stop once it enters a cell beyond 
+     *  the closest hit found so far.</p>
+     */   
+    private class RayWalk {
+        Frame a;
+        Frame b;
+        double t;
+        double ox, oy, oz;
+        double dx, dy, dz;
+        long ignore;
+        int best;
+        double bestDist;
+        double start;
+        double end;
+        
+        public void begin( Frame a, Frame b, double t, Vec3d origin, 
+                           double dx, double dy, double dz, double maxDistance, long ignore ) {
+            this.a = a;
+            this.b = b;
+            this.t = t;
+            this.ox = origin.x;
+            this.oy = origin.y;
+            this.oz = origin.z;
+            this.dx = dx;
+            this.dy = dy;
+            this.dz = dz;
+            this.ignore = ignore;
+            this.best = -1;
+            this.bestDist = maxDistance;
+        }
+        
+        public void walk() {
+            if( a.minX > a.maxX ) {
+                // No bodies in this frame
+                return;
+            }
+            double reach = a.maxRadius + (b == null ? 0 : b.maxDisplacement);
+            
+            // Clip the ray to the padded bounds of the frame so that we
+            // don't walk empty space before or after all of the bodies
+            start = 0;
+            end = bestDist;
+            if( !clip(ox, dx, a.minX - reach, a.maxX + reach)
+                || !clip(oy, dy, a.minY - reach, a.maxY + reach)
+                || !clip(oz, dz, a.minZ - reach, a.maxZ + reach) ) {
+                return;
+            }
+            
+            nextStamp(a);
+            int k = (int)Math.ceil(reach / cellSize);
+ 
+            double sx = ox + dx * start;
+            double sy = oy + dy * start;
+            double sz = oz + dz * start;
+            int x = cell(sx);
+            int y = cell(sy);
+            int z = cell(sz);
+            int stepX = dx > 0 ? 1 : dx < 0 ? -1 : 0;
+            int stepY = dy > 0 ? 1 : dy < 0 ? -1 : 0;
+            int stepZ = dz > 0 ? 1 : dz < 0 ? -1 : 0;
+            double deltaX = stepX == 0 ? Double.POSITIVE_INFINITY : cellSize / Math.abs(dx);
+            double deltaY = stepY == 0 ? Double.POSITIVE_INFINITY : cellSize / Math.abs(dy);
+            double deltaZ = stepZ == 0 ? Double.POSITIVE_INFINITY : cellSize / Math.abs(dz);
+            double nextX = start + boundary(sx, x, stepX, dx);
+            double nextY = start + boundary(sy, y, stepY, dy);
+            double nextZ = start + boundary(sz, z, stepZ, dz);
+ 
+            // The first cell needs its whole neighborhood
+            testCells(x - k, x + k, y - k, y + k, z - k, z + k);
+            
+            for( ;; ) {
+                double enter;
+                if( nextX <= nextY && nextX <= nextZ ) {
+                    enter = nextX;
+                    x += stepX;
+                    nextX += deltaX;
+                    if( enter > bestDist || enter > end ) {
+                        return;
+                    }
+                    int slab = x + stepX * k;
+                    testCells(slab, slab, y - k, y + k, z - k, z + k);
+                } else if( nextY <= nextZ ) {
+                    enter = nextY;
+                    y += stepY;
+                    nextY += deltaY;
+                    if( enter > bestDist || enter > end ) {
+                        return;
+                    }
+                    int slab = y + stepY * k;
+                    testCells(x - k, x + k, slab, slab, z - k, z + k);
+                } else {
+                    enter = nextZ;
+                    z += stepZ;
+                    nextZ += deltaZ;
+                    if( enter > bestDist || enter > end ) {
+                        return;
+                    }
+                    int slab = z + stepZ * k;
+                    testCells(x - k, x + k, y - k, y + k, slab, slab);
+                }
+            }
+        }
+        
+        /**
+         *  Returns the distance along the ray from v to the next cell
+         *  boundary on one axis.
+         */
+        private double boundary( double v, int cell, int step, double d ) {
+            if( step == 0 ) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double edge = (step > 0 ? cell + 1 : cell) * cellSize;
+            return (edge - v) / d;
+        }
+        
+        /**
+         *  Narrows [start, end] to the part of the ray between min and max 
+         *  on one axis.  Returns false if nothing is left.
+         */
+        private boolean clip( double o, double d, double min, double max ) {
+            if( d == 0 ) {
+                return o >= min && o <= max;
+            }
+            double t1 = (min - o) / d;
+            double t2 = (max - o) / d;
+            start = Math.max(start, Math.min(t1, t2));
+            end = Math.min(end, Math.max(t1, t2));
+            return start <= end;
+        }
+        
+        private void testCells( int x1, int x2, int y1, int y2, int z1, int z2 ) {
+            for( int x = x1; x <= x2; x++ ) {
+                for( int y = y1; y <= y2; y++ ) {
+                    for( int z = z1; z <= z2; z++ ) {
+                        // Hash collisions just mean extra bodies to test so we
+                        // still need the stamps to avoid testing any twice
+                        for( int i = a.heads[hash(x, y, z) & a.mask]; i >= 0; i = a.next[i] ) {
+                            if( stamps[i] != stamp ) {
+                                stamps[i] = stamp;
+                                test(i);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        
+        private void test( int index ) {
+            if( a.ids[index] == ignore ) {
+                return;
+            }
+            Vec3d center = position(a, b, t, index, temp);
+            double r = a.radius[index];
+            
+            // Standard ray-sphere with the ray starting inside the sphere
+            // counting as a hit at distance 0
+            double mx = ox - center.x;
+            double my = oy - center.y;
+            double mz = oz - center.z;
+            double c = mx * mx + my * my + mz * mz - r * r;
+            double dist;
+            if( c <= 0 ) {
+                dist = 0;
+            } else {
+                double bDot = mx * dx + my * dy + mz * dz;
+                if( bDot > 0 ) {
+                    return;
+                }
+                double disc = bDot * bDot - c;
+                if( disc < 0 ) {
+                    return;
+                }
+                dist = -bDot - Math.sqrt(disc);
+            }
+            if( dist <= bestDist ) {
+                best = index;
+                bestDist = dist;
+            }
+        }
+    }
+
+    /**
+     *  One recorded frame of body state and its spatial hash.  Per-body data
+     *  is indexed by the body's rewind index and an ID of -1 means the index
+     *  is unused in this frame.
+     */   
+    private class Frame {
+        long time;
+        int count;
+        long[] ids = new long[0];
+        float[] x = new float[0];
+        float[] y = new float[0];
+        float[] z = new float[0];
+        float[] radius = new float[0];
+        
+        int[] heads = new int[16];
+        int[] next = new int[0];
+        int mask;
+        
+        double maxRadius;
+        double maxDisplacement;
+        
+        // Bounds of the body centers in this frame
+        double minX, minY, minZ;
+        double maxX, maxY, maxZ;
+        
+        public void begin( long time, Frame prev, int size ) {
+            this.time = time;
+            this.count = 0;
+            if( prev != null ) {
+                // Carry the previous state forward for bodies that
+                // don't get updated this frame 
+                ensureCapacity(prev.count);
+                System.arraycopy(prev.ids, 0, ids, 0, prev.count);
+                System.arraycopy(prev.x, 0, x, 0, prev.count);
+                System.arraycopy(prev.y, 0, y, 0, prev.count);
+                System.arraycopy(prev.z, 0, z, 0, prev.count);
+                System.arraycopy(prev.radius, 0, radius, 0, prev.count);
+                this.count = prev.count;
+            }
+            extend(size);
+        }
+ 
+        public void extend( int size ) {
+            if( size <= count ) {
+                return;
+            }
+            ensureCapacity(size);
+            Arrays.fill(ids, count, size, -1);
+            count = size;
+        }
+        
+        public void set( int index, Body body ) {
+            ids[index] = body.bodyId.getId();
+            x[index] = (float)body.pos.x;
+            y[index] = (float)body.pos.y;
+            z[index] = (float)body.pos.z;
+            radius[index] = (float)body.radius;
+        }
+        
+        public void buildIndex( double cellSize, Frame prev ) {
+            int tableSize = 16;
+            while( tableSize < count * 2 ) {
+                tableSize <<= 1;
+            }
+            if( heads.length < tableSize ) {
+                heads = new int[tableSize];
+            }
+            mask = heads.length - 1;
+            Arrays.fill(heads, -1);
+            
+            maxRadius = 0;
+            minX = minY = minZ = Double.POSITIVE_INFINITY;
+            maxX = maxY = maxZ = Double.NEGATIVE_INFINITY;
+            double maxDistSq = 0;
+            for( int i = 0; i < count; i++ ) {
+                if( ids[i] < 0 ) {
+                    continue;
+                }
+                int h = hash(cell(x[i]), cell(y[i]), cell(z[i])) & mask;
+                next[i] = heads[h];
+                heads[h] = i;
+                maxRadius = Math.max(maxRadius, radius[i]);
+                minX = Math.min(minX, x[i]);
+                minY = Math.min(minY, y[i]);
+                minZ = Math.min(minZ, z[i]);
+                maxX = Math.max(maxX, x[i]);
+                maxY = Math.max(maxY, y[i]);
+                maxZ = Math.max(maxZ, z[i]);
+                
+                if( prev != null && i < prev.count && prev.ids[i] == ids[i] ) {
+                    double dx = x[i] - prev.x[i];
+                    double dy = y[i] - prev.y[i];
+                    double dz = z[i] - prev.z[i];
+                    maxDistSq = Math.max(maxDistSq, dx * dx + dy * dy + dz * dz);
+                }
+            }
+            maxDisplacement = Math.sqrt(maxDistSq);
+        }
+        
+        private void ensureCapacity( int size ) {
+            if( ids.length >= size ) {
+                return;
+            }
+            int capacity = Math.max(size, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            z = Arrays.copyOf(z, capacity);
+            radius = Arrays.copyOf(radius, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+    }
+}
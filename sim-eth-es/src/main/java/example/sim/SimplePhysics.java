@@ -38,10 +38,12 @@ package example.sim;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.jme3.util.SafeArrayList;
 
 import com.simsilica.es.*;
+import com.simsilica.mathd.Vec3d;
 import com.simsilica.sim.*;
 
 import example.es.*;
@@ -69,8 +71,240 @@ public class SimplePhysics extends AbstractGameSystem {
     private ConcurrentLinkedQueue<Body> toRemove = new ConcurrentLinkedQueue<>();
  
     private SafeArrayList<PhysicsListener> listeners = new SafeArrayList<>(PhysicsListener.class);
+ 
+    // Packed integration state when running in packed mode, else null
+    private BodyStore store;
+ 
+    // Optional parallel execution of the driver and integration passes.
+    // Listeners are always notified from the simulation thread.
+    private ForkJoinPool pool;
+    private int parallelThreshold = 2048;
+    private int chunkSize = 512;
+ 
+    // Sleep management
+    private int sleepTicks = 60;
+    private double restThreshold = 0.001;
+    private int sleepingUpdateInterval = 60;
+    private long frameCount;
+    private volatile int bodyCount;
+ 
+    // Reduced rate stepping for overload.  When the rate divisor is more than
+    // 1, physics only runs every rateDivisor frames and then catches up the 
+    // skipped time in fixed size substeps.
+    private volatile int rateDivisor = 1;
+    private double maxSubstep = 1.0 / 60;
+    private double pendingTime;
+    private long tickCount;
+ 
+    private AtomicInteger nextAttachmentKey = new AtomicInteger();
+    
+    // Optional filter for sharing an EntityData with other physics systems
+    private ComponentFilter filter;
+    
+    // Optional world bounds that bodies are kept inside of
+    private volatile Vec3d[] bounds;
     
     public SimplePhysics() {
+        this(false);
+    }
+ 
+    /**
+     *  Creates a physics system that optionally keeps the integration
+     *  state of its bodies in a packed BodyStore.  In packed mode, integration
+     *  runs over contiguous primitive columns and the results are copied
+     *  back to the Body objects before the physics listeners are notified.
+     */   
+    public SimplePhysics( boolean packed ) {
+        this(packed, null);
+    }
+ 
+    /**
+     *  Creates a physics system that only manages the entities that also
+     *  match the specified filter.  This lets several physics systems
+     *  share one EntityData, ie: one per arena.
+     */   
+    public SimplePhysics( boolean packed, ComponentFilter filter ) {
+        if( packed ) {
+            this.store = new BodyStore();
+        }
+        this.filter = filter;
+    }
+ 
+    /**
+     *  Returns true if this physics system is integrating its bodies
+     *  from a packed BodyStore.
+     */   
+    public boolean isPacked() {
+        return store != null;
+    }
+ 
+    /**
+     *  Sets the ForkJoinPool that will be used to run the control driver
+     *  and integration passes in parallel.  Each body's driver update and
+     *  integration is independent of the other bodies so the body array
+     *  is split into chunks across the pool.  Physics listeners are still
+     *  notified from the simulation thread in the normal beginFrame(),
+     *  updateBody(), endFrame() order.  Set to null (the default) to always
+     *  run on the simulation thread.
+     */
+    public void setParallelPool( ForkJoinPool pool ) {
+        this.pool = pool;
+    }
+    
+    public ForkJoinPool getParallelPool() {
+        return pool;
+    }
+ 
+    /**
+     *  Sets the number of bodies below which the passes will be run serially
+     *  even if a parallel pool has been set.  For small body counts the task 
+     *  overhead is more than the integration itself.  Defaults to 2048.
+     */   
+    public void setParallelThreshold( int parallelThreshold ) {
+        this.parallelThreshold = parallelThreshold;
+    }
+    
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+ 
+    /**
+     *  Sets the maximum number of bodies that a single parallel task
+     *  will process before splitting.  Defaults to 512.
+     */   
+    public void setParallelChunkSize( int chunkSize ) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+    
+    public int getParallelChunkSize() {
+        return chunkSize;
+    }
+ 
+    /**
+     *  Sets the number of consecutive frames a body must be at rest before
+     *  it is put to sleep.  Sleeping bodies are not integrated and are only
+     *  published to the physics listeners every sleepingUpdateInterval frames.
+     *  Bodies with no mass and no driver become static instead of sleeping.
+     *  Set to 0 to disable sleeping.  Defaults to 60.
+     */
+    public void setSleepTicks( int sleepTicks ) {
+        this.sleepTicks = sleepTicks;
+    }
+    
+    public int getSleepTicks() {
+        return sleepTicks;
+    }
+ 
+    /**
+     *  Sets the velocity and acceleration magnitude below which a body is 
+     *  considered to be at rest.  Defaults to 0.001.
+     */   
+    public void setRestThreshold( double restThreshold ) {
+        this.restThreshold = restThreshold;
+    }
+    
+    public double getRestThreshold() {
+        return restThreshold;
+    }
+ 
+    /**
+     *  Sets how often, in frames, sleeping and static bodies are still published
+     *  to the physics listeners.  This keeps them alive for listeners that 
+     *  expect regular updates, for example so that players entering a new zone
+     *  still eventually see the sleeping objects in it.  The updates are spread
+     *  out across frames by body ID.  Set to 0 to never publish non-awake bodies.
+     *  Defaults to 60.
+     */   
+    public void setSleepingUpdateInterval( int sleepingUpdateInterval ) {
+        this.sleepingUpdateInterval = sleepingUpdateInterval;
+    }
+    
+    public int getSleepingUpdateInterval() {
+        return sleepingUpdateInterval;
+    }
+ 
+    /**
+     *  Sets the box that bodies are kept inside of.  After each integration
+     *  step, any body that is outside of the box is moved back onto its edge
+     *  and its velocity along that axis is stopped.  Pass null for both to 
+     *  remove the bounds, which is the default.  This can be called from 
+     *  any thread.
+     */   
+    public void setBounds( Vec3d min, Vec3d max ) {
+        if( (min == null) != (max == null) ) {
+            throw new IllegalArgumentException("Both min and max must be set or null");
+        }
+        this.bounds = min == null ? null : new Vec3d[] { min.clone(), max.clone() };
+    }
+    
+    public Vec3d getBoundsMin() {
+        Vec3d[] b = bounds;
+        return b == null ? null : b[0].clone();
+    }
+ 
+    public Vec3d getBoundsMax() {
+        Vec3d[] b = bounds;
+        return b == null ? null : b[1].clone();
+    }
+ 
+    /**
+     *  Sets how many game loop frames go by for each physics update.  The 
+     *  time from the skipped frames is still integrated in rateDivisor 
+     *  substeps so that the integration is as stable as at the full rate.  
+     *  The savings come from the entity updates and the physics listeners,
+     *  which only run on the frames where physics runs.
+     *  Defaults to 1, ie: every frame.  This can be called from any thread.
+     */
+    public void setRateDivisor( int rateDivisor ) {
+        if( rateDivisor < 1 ) {
+            throw new IllegalArgumentException("Rate divisor must be at least 1:" + rateDivisor);
+        }
+        this.rateDivisor = rateDivisor;
+    }
+    
+    public int getRateDivisor() {
+        return rateDivisor;
+    }
+ 
+    /**
+     *  Sets the nominal time step that a single integration substep 
+     *  covers.  The elapsed time of an update is split into however many
+     *  of these fit, rounded to the nearest whole step so that normal loop
+     *  jitter still gives one step per frame, and never less than the rate
+     *  divisor.  Longer gaps, like after a GC pause, get extra substeps.  
+     *  Defaults to 1/60th of a second.
+     */   
+    public void setMaxSubstep( double maxSubstep ) {
+        this.maxSubstep = maxSubstep;
+    }
+    
+    public double getMaxSubstep() {
+        return maxSubstep;
+    }
+ 
+    /**
+     *  Returns the number of physics updates that have actually run.  When
+     *  the rate divisor is more than 1, this grows slower than the game 
+     *  loop's frame count.
+     */
+    public long getStepCount() {
+        return frameCount;
+    }
+ 
+    /**
+     *  Returns the number of bodies that were stepped in the last update.
+     */
+    public int getBodyCount() {
+        return bodyCount;
+    }
+ 
+    /**
+     *  Reserves a new key that can be used with Body.setAttachment() and
+     *  Body.getAttachment() to keep per-body state.  Physics listeners will
+     *  generally create their key when they are initialized.
+     */
+    public int createAttachmentKey() {
+        return nextAttachmentKey.getAndIncrement();
     }
  
     /**
@@ -96,6 +330,7 @@ public class SimplePhysics extends AbstractGameSystem {
             Body current = getBody(entityId);
             if( current != null ) {
                 current.driver = driver;
+                current.wake();
             }
         }
     }
@@ -104,6 +339,19 @@ public class SimplePhysics extends AbstractGameSystem {
         return driverIndex.get(entityId);
     }
  
+    /**
+     *  Wakes up the body for the specified entity if it is sleeping or static.
+     *  Returns false if there is no body for the entity.
+     */   
+    public boolean wakeBody( EntityId entityId ) {
+        Body body = getBody(entityId);
+        if( body == null ) {
+            return false;
+        }
+        body.wake();
+        return true;
+    }
+ 
     protected Body createBody( EntityId entityId, double invMass, double radius, boolean create ) {
         Body result = index.get(entityId);
         if( result == null && create ) {
@@ -151,6 +399,9 @@ public class SimplePhysics extends AbstractGameSystem {
             Body body = null;
             while( (body = toAdd.poll()) != null ) {
                 //bodies.add(body);
+                if( store != null ) {
+                    store.add(body);
+                }
                 for( PhysicsListener l : listeners.getArray() ) {
                     l.addBody(body);
                 }
@@ -160,6 +411,9 @@ public class SimplePhysics extends AbstractGameSystem {
             Body body = null;
             while( (body = toRemove.poll()) != null ) {
                 //bodies.remove(body);
+                if( store != null ) {
+                    store.remove(body);
+                }
                 for( PhysicsListener l : listeners.getArray() ) {
                     l.removeBody(body);
                 }
@@ -169,7 +423,7 @@ public class SimplePhysics extends AbstractGameSystem {
 
     @Override
     public void start() {
-        bodies = new BodyContainer(ed);
+        bodies = filter == null ? new BodyContainer(ed) : new BodyContainer(ed, filter);
         bodies.start();
     }
 
@@ -179,9 +433,106 @@ public class SimplePhysics extends AbstractGameSystem {
         bodies = null;
     }
 
+    /**
+     *  Applies the control drivers and updates the activity state of the
+     *  bodies in the range [start, end).  In packed mode, this also loads 
+     *  any velocity changes into the BodyStore.
+     */
+    protected void applyDrivers( Body[] array, int start, int end, double tpf ) {
+        for( int i = start; i < end; i++ ) {
+            Body b = array[i];
+            ControlDriver driver = b.driver;
+            if( driver == null && !b.isAwake() ) {
+                // Nothing is going to move it
+                continue;
+            }
+            if( driver != null ) {
+                driver.update(tpf, b);
+            }
+            boolean awake = sleepTicks <= 0 || b.updateActivity(sleepTicks, restThreshold);
+            if( store != null && (driver != null || awake != store.isAwake(b.slot)) ) {
+                // Drivers may have changed velocity, bodies going to sleep 
+                // have just had theirs zeroed, and bodies woken from the 
+                // outside need to start integrating again.
+                store.load(b);
+            }
+        }
+    }
+
+    /**
+     *  Integrates and applies the bounds to the awake bodies in the range 
+     *  [start, end).  Only used when the bodies are not packed.
+     */
+    protected void integrate( Body[] array, int start, int end, double tpf ) {
+        Vec3d[] box = bounds;
+        for( int i = start; i < end; i++ ) {
+            Body b = array[i];
+            if( b.isAwake() ) {
+                b.integrate(tpf);
+                if( box != null && b.clamp(box[0], box[1]) ) {
+                    b.bounds.setCenter(b.pos);
+                }
+            }
+        }
+    }
+
+    /**
+     *  Integrates and applies the bounds to the BodyStore slots in the range 
+     *  [start, end) and copies the results back to their bodies.
+     */
+    protected void integrate( int start, int end, double tpf ) {
+        store.integrate(start, end, tpf);
+        Vec3d[] box = bounds;
+        if( box != null ) {
+            store.clamp(start, end, box[0], box[1]);
+        }
+        store.store(start, end);
+    }
+ 
+    /**
+     *  Returns true if the physics listeners should be notified about the 
+     *  specified body this frame.  Awake bodies are always published.
+     */   
+    protected boolean isPublished( Body body, long frame ) {
+        if( body.isAwake() ) {
+            return true;
+        }
+        if( sleepingUpdateInterval <= 0 ) {
+            return false;
+        }
+        return (frame + body.bodyId.getId()) % sleepingUpdateInterval == 0;
+    }
+
+    /**
+     *  Runs one pass over the range [0, size), splitting it across the 
+     *  pool when there are enough bodies.  Every driver sees the same 
+     *  pre-integration state this way, parallel or not.  For the packed 
+     *  pass, the range is BodyStore slots instead of array indexes.
+     */
+    private void runPass( Pass pass, Body[] array, int size, double tpf ) {
+        if( pool != null && size >= parallelThreshold ) {
+            pool.invoke(new StepTask(pass, array, 0, size, tpf));
+        } else {
+            pass.run(this, array, 0, size, tpf);
+        }
+    }
+
     @Override
     public void update( SimTime time ) {
  
+        pendingTime += time.getTpf();
+        if( tickCount++ % rateDivisor != 0 ) {
+            return;
+        }
+        double elapsed = pendingTime;
+        pendingTime = 0;
+        
+        // One substep per nominal step of elapsed time.  Rounding rather 
+        // than ceil() keeps a frame that ran a little long from turning into
+        // two half-sized steps.
+        int substeps = Math.max(rateDivisor, (int)Math.round(elapsed / maxSubstep));
+        double tpf = elapsed / substeps; 
+ 
         for( PhysicsListener l : listeners.getArray() ) {
             l.beginFrame(time);
         }
@@ -192,24 +543,27 @@ public class SimplePhysics extends AbstractGameSystem {
         // Fire off any pending add/remove events 
         fireBodyListListeners();
  
-        double tpf = time.getTpf();
- 
-        // Apply control driver changes
-        for( Body b : bodies.getArray() ) {
-            if( b.driver != null ) {
-                b.driver.update(tpf, b);
+        // Apply control driver changes and then integrate
+        Body[] array = bodies.getArray();
+        bodyCount = array.length;
+        for( int s = 0; s < substeps; s++ ) {
+            runPass(Pass.Drivers, array, array.length, tpf);
+            if( store != null ) {
+                // The packed columns are integrated in slot order rather than
+                // body array order
+                runPass(Pass.PackedIntegrate, array, store.size(), tpf);
+            } else {
+                runPass(Pass.Integrate, array, array.length, tpf);
             }
         }
  
-        // Integrate
-        for( Body b : bodies.getArray() ) {
-            b.integrate(tpf);
-        }
- 
         // Publish the results
+        long frame = frameCount++;
         for( PhysicsListener l : listeners.getArray() ) {
-            for( Body b : bodies.getArray() ) {
-                l.updateBody(b);
+            for( Body b : array ) {
+                if( isPublished(b, frame) ) {
+                    l.updateBody(b);
+                }
             }
         }
                
@@ -218,6 +572,57 @@ public class SimplePhysics extends AbstractGameSystem {
         }
     }
 
+    private enum Pass {
+        Drivers {
+            void run( SimplePhysics physics, Body[] array, int start, int end, double tpf ) {
+                physics.applyDrivers(array, start, end, tpf);
+            }
+        },
+        Integrate {
+            void run( SimplePhysics physics, Body[] array, int start, int end, double tpf ) {
+                physics.integrate(array, start, end, tpf);
+            }
+        },
+        PackedIntegrate {
+            void run( SimplePhysics physics, Body[] array, int start, int end, double tpf ) {
+                physics.integrate(start, end, tpf);
+            }
+        };
+        
+        abstract void run( SimplePhysics physics, Body[] array, int start, int end, double tpf );
+    }
+
+    /**
+     *  Recursively splits a range of bodies until it is small enough
+     *  to run the pass directly.
+     */
+    private class StepTask extends RecursiveAction {
+        private final Pass pass;
+        private final Body[] array;
+        private final int start;
+        private final int end;
+        private final double tpf;
+        
+        public StepTask( Pass pass, Body[] array, int start, int end, double tpf ) {
+            this.pass = pass;
+            this.array = array;
+            this.start = start;
+            this.end = end;
+            this.tpf = tpf;
+        }
+        
+        @Override
+        protected void compute() {
+            if( end - start <= chunkSize ) {
+                pass.run(SimplePhysics.this, array, start, end, tpf);
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new StepTask(pass, array, start, mid, tpf),
+                      new StepTask(pass, array, mid, end, tpf));
+        }
+    }
+
     /**
      *  Maps the appropriate entities to physics bodies.
      */
@@ -227,6 +632,11 @@ public class SimplePhysics extends AbstractGameSystem {
             super(ed, Position.class, MassProperties.class, SphereShape.class);
         }
         
+        public BodyContainer( EntityData ed, ComponentFilter filter ) {
+            super(ed, filter, Position.class, MassProperties.class, SphereShape.class, 
+                  filter.getComponentType());
+        }
+        
         @Override     
         protected Body[] getArray() {
             return super.getArray();
@@ -52,13 +52,11 @@ import com.simsilica.ethereal.TimeSource;
 
 import com.simsilica.es.*;
 
-import com.simsilica.mathd.trans.PositionTransition3f;
-import com.simsilica.mathd.trans.TransitionBuffer;
-
 import example.ConnectionState;
 import example.GameSessionState;
 import example.Main;
 import example.es.BodyPosition;
+import example.es.PositionHistory;
 
 /**
  *  Displays a HUD label for any entity with a BodyPosition and a Name.
@@ -148,7 +146,8 @@ public class HudLabelState extends BaseAppState {
         boolean visible;
         boolean isPlayerEntity;        
         
-        TransitionBuffer<PositionTransition3f> buffer;
+        PositionHistory history;
+        Vector3f pos = new Vector3f();
         
         public LabelHolder( Entity entity ) {
             this.entity = entity;
@@ -163,7 +162,7 @@ public class HudLabelState extends BaseAppState {
             // thread-safe history buffer.  Everywhere it's used, it should
             // be 'initialized'.            
             bodyPos.initialize(entity.getId(), 12);
-            buffer = bodyPos.getBuffer();
+            history = bodyPos.getHistory();
             
             // If this is the player's ship then we don't want the model
             // shown else it looks bad.  A) it's ugly.  B) the model will
@@ -201,13 +200,10 @@ public class HudLabelState extends BaseAppState {
         public void update( long time ) {
  
             // Look back in the brief history that we've kept and
-            // pull an interpolated value.  To do this, we grab the
-            // span of time that contains the time we want.  PositionTransition
-            // represents a starting and an ending pos+rot over a span of time.
-            PositionTransition3f trans = buffer.getTransition(time);
-            if( trans != null ) {
-                Vector3f pos = trans.getPosition(time, true);
-                setVisible(trans.getVisibility(time));                
+            // pull an interpolated value.  The history interpolates between
+            // the two frames that span the time we want.
+            if( history.getTransform(time, pos, null) ) {
+                setVisible(history.isVisible(time));                
                 updateLabelPos(pos);
             }            
         }
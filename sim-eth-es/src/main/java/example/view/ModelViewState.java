@@ -53,9 +53,6 @@ import com.simsilica.lemur.*;
 
 import com.simsilica.es.*;
 
-import com.simsilica.mathd.trans.PositionTransition3f;
-import com.simsilica.mathd.trans.TransitionBuffer;
-
 import example.ConnectionState;
 import example.GameSessionState;
 import example.Main;
@@ -244,7 +241,9 @@ public class ModelViewState extends BaseAppState {
         boolean visible;
         boolean localPlayerShip;
  
-        TransitionBuffer<PositionTransition3f> buffer;
+        PositionHistory history;
+        Vector3f pos = new Vector3f();
+        Quaternion rot = new Quaternion();
         
         public Mob( Entity entity ) {
             this.entity = entity;
@@ -258,7 +257,7 @@ public class ModelViewState extends BaseAppState {
             // thread-safe history buffer.  Everywhere it's used, it should
             // be 'initialized'.            
             bodyPos.initialize(entity.getId(), 12);
-            buffer = bodyPos.getBuffer();
+            history = bodyPos.getHistory();
             
             // If this is the player's ship then we don't want the model
             // shown else it looks bad.  A) it's ugly.  B) the model will
@@ -274,14 +273,12 @@ public class ModelViewState extends BaseAppState {
         public void updateSpatial( long time ) {
  
             // Look back in the brief history that we've kept and
-            // pull an interpolated value.  To do this, we grab the
-            // span of time that contains the time we want.  PositionTransition
-            // represents a starting and an ending pos+rot over a span of time.
-            PositionTransition3f trans = buffer.getTransition(time);
-            if( trans != null ) {
-                spatial.setLocalTranslation(trans.getPosition(time, true));
-                spatial.setLocalRotation(trans.getRotation(time, true));
-                setVisible(trans.getVisibility(time));
+            // pull an interpolated value.  The history interpolates between
+            // the two frames that span the time we want.
+            if( history.getTransform(time, pos, rot) ) {
+                spatial.setLocalTranslation(pos);
+                spatial.setLocalRotation(rot);
+                setVisible(history.isVisible(time));
             }            
         }
         
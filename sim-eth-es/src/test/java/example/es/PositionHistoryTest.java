@@ -0,0 +1,201 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.es;
+
+import java.util.concurrent.atomic.*;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+/**
+ *  Checks the PositionHistory interpolation, clamping, and wrap around.
+ *
+ *  @author    agent
+ */
+public class PositionHistoryTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    private Vector3f pos = new Vector3f();
+    private Quaternion rot = new Quaternion();
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoHistory() {
+        new PositionHistory(0);
+    }
+
+    @Test
+    public void testEmpty() {
+        PositionHistory history = new PositionHistory(4);
+        assertEquals(0, history.size());
+        assertEquals(-1, history.getLatestTime());
+        assertFalse(history.isVisible(0));
+
+        pos.set(1, 2, 3);
+        assertFalse(history.getTransform(0, pos, rot));
+        assertEquals(new Vector3f(1, 2, 3), pos);
+    }
+
+    @Test
+    public void testInterpolation() {
+        PositionHistory history = new PositionHistory(4);
+        Quaternion r1 = new Quaternion().fromAngles(0, 0, 0);
+        Quaternion r2 = new Quaternion().fromAngles(0, 1, 0);
+        history.addFrame(100, new Vector3f(0, 0, 0), r1, false);
+        history.addFrame(200, new Vector3f(10, 20, -10), r2, true);
+
+        assertEquals(2, history.size());
+        assertEquals(200, history.getLatestTime());
+
+        assertTrue(history.getTransform(125, pos, rot));
+        assertVector(2.5f, 5, -2.5f, pos);
+        assertQuat(new Quaternion().fromAngles(0, 0.25f, 0), rot, 1e-3f);
+
+        assertTrue(history.getTransform(200, pos, rot));
+        assertVector(10, 20, -10, pos);
+        assertQuat(r2, rot, EPSILON);
+
+        // Either store can be skipped
+        assertTrue(history.getTransform(150, pos, null));
+        assertVector(5, 10, -5, pos);
+
+        assertFalse(history.isVisible(150));
+        assertTrue(history.isVisible(200));
+    }
+
+    @Test
+    public void testClamping() {
+        PositionHistory history = new PositionHistory(4);
+        history.addFrame(100, new Vector3f(1, 1, 1), Quaternion.IDENTITY, true);
+        history.addFrame(200, new Vector3f(2, 2, 2), Quaternion.IDENTITY, false);
+
+        history.getTransform(0, pos, rot);
+        assertVector(1, 1, 1, pos);
+        assertTrue(history.isVisible(0));
+
+        history.getTransform(1000, pos, rot);
+        assertVector(2, 2, 2, pos);
+        assertFalse(history.isVisible(1000));
+    }
+
+    @Test
+    public void testShortestPath() {
+        // q and -q are the same rotation so the halfway point should be
+        // the same rotation too instead of going the long way around.
+        PositionHistory history = new PositionHistory(4);
+        Quaternion q = new Quaternion().fromAngles(0.5f, 1, 0);
+        Quaternion negQ = new Quaternion(-q.getX(), -q.getY(), -q.getZ(), -q.getW());
+        history.addFrame(0, Vector3f.ZERO, q, true);
+        history.addFrame(10, Vector3f.ZERO, negQ, true);
+
+        history.getTransform(5, null, rot);
+        assertQuat(q, rot, EPSILON);
+    }
+
+    @Test
+    public void testWrapAround() {
+        PositionHistory history = new PositionHistory(4);
+        for( int i = 0; i < 10; i++ ) {
+            history.addFrame(i * 100, new Vector3f(i, 0, 0), Quaternion.IDENTITY, i % 2 == 0);
+        }
+        assertEquals(4, history.getHistorySize());
+        assertEquals(4, history.size());
+        assertEquals(900, history.getLatestTime());
+
+        // Only frames 6 through 9 are left
+        history.getTransform(0, pos, rot);
+        assertVector(6, 0, 0, pos);
+        history.getTransform(750, pos, rot);
+        assertVector(7.5f, 0, 0, pos);
+        history.getTransform(850, pos, rot);
+        assertVector(8.5f, 0, 0, pos);
+        assertTrue(history.isVisible(650));
+        assertFalse(history.isVisible(750));
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        final PositionHistory history = new PositionHistory(3);
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> error = new AtomicReference<>();
+
+        // Every frame has y = 2x and z = -x so a reader that sees parts of
+        // two different frames will notice.
+        Thread reader = new Thread() {
+            public void run() {
+                Vector3f v = new Vector3f();
+                while( !done.get() && error.get() == null ) {
+                    long latest = history.getLatestTime();
+                    if( latest < 0 ) {
+                        continue;
+                    }
+                    history.getTransform(latest - 1, v, null);
+                    if( Math.abs(v.y - v.x * 2) > 1e-2f || Math.abs(v.z + v.x) > 1e-2f ) {
+                        error.set("Inconsistent frame:" + v);
+                    }
+                }
+            }
+        };
+        reader.start();
+        try {
+            Vector3f v = new Vector3f();
+            for( int i = 0; i < 1000000 && error.get() == null; i++ ) {
+                float x = i % 1000;
+                history.addFrame(i, v.set(x, x * 2, -x), Quaternion.IDENTITY, true);
+            }
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+        assertNull(error.get());
+    }
+
+    private static void assertVector( float x, float y, float z, Vector3f v ) {
+        assertEquals(x, v.x, EPSILON);
+        assertEquals(y, v.y, EPSILON);
+        assertEquals(z, v.z, EPSILON);
+    }
+
+    private static void assertQuat( Quaternion expected, Quaternion actual, float epsilon ) {
+        // Same rotation either way
+        float dot = Math.abs(expected.dot(actual));
+        assertEquals(1, dot, epsilon);
+    }
+}
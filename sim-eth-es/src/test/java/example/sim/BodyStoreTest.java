@@ -0,0 +1,241 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.sim;
+
+import java.util.*;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import com.simsilica.es.EntityId;
+import com.simsilica.mathd.*;
+
+/**
+ *  Checks the packed BodyStore integration against Body.integrate()
+ *  and that the slots stay dense as bodies come and go.
+ *
+ *  @author    agent
+ */
+public class BodyStoreTest {
+
+    private static final double EPSILON = 1e-12;
+
+    private Random rand = new Random(42);
+    private long nextId;
+
+    @Test
+    public void testIntegrateMatchesBody() {
+        BodyStore store = new BodyStore(16);
+        List<Body> packed = new ArrayList<>();
+        List<Body> plain = new ArrayList<>();
+        
+        // Enough to make the store grow
+        for( int i = 0; i < 100; i++ ) {
+            Body body = randomBody();
+            packed.add(body);
+            plain.add(copy(body));
+            store.add(body);
+        }
+        assertEquals(100, store.size());
+        assertTrue(store.getCapacity() >= 100);
+
+        Vec3d min = new Vec3d(-20, -20, -20);
+        Vec3d max = new Vec3d(20, 20, 20);
+        for( int step = 0; step < 10; step++ ) {
+            // Change the acceleration like a driver would
+            for( int i = 0; i < packed.size(); i++ ) {
+                Vec3d acc = new Vec3d(rand.nextDouble() - 0.5, rand.nextDouble() - 0.5, rand.nextDouble() - 0.5);
+                packed.get(i).acceleration.set(acc);
+                plain.get(i).acceleration.set(acc);
+                store.load(packed.get(i));
+            }
+            store.integrate(0.1);
+            store.clamp(0, store.size(), min, max);
+            store.store();
+            for( Body body : plain ) {
+                body.integrate(0.1);
+                body.clamp(min, max);
+            }
+        }
+
+        for( int i = 0; i < packed.size(); i++ ) {
+            assertVec(plain.get(i).pos, packed.get(i).pos);
+            assertVec(plain.get(i).velocity, packed.get(i).velocity);
+            assertVec(packed.get(i).pos, packed.get(i).bounds.getCenter());
+        }
+    }
+
+    @Test
+    public void testRangesCoverEverything() {
+        BodyStore whole = new BodyStore();
+        BodyStore split = new BodyStore();
+        List<Body> wholeBodies = new ArrayList<>();
+        List<Body> splitBodies = new ArrayList<>();
+        for( int i = 0; i < 50; i++ ) {
+            Body body = randomBody();
+            wholeBodies.add(body);
+            splitBodies.add(copy(body));
+            whole.add(body);
+            split.add(splitBodies.get(i));
+        }
+        
+        whole.integrate(0.1);
+        whole.store();
+        
+        // Like the parallel passes
+        split.integrate(0, 20, 0.1);
+        split.integrate(20, 50, 0.1);
+        split.store(0, 25);
+        split.store(25, 50);
+        
+        for( int i = 0; i < 50; i++ ) {
+            assertVec(wholeBodies.get(i).pos, splitBodies.get(i).pos);
+        }
+    }
+
+    @Test
+    public void testRemoveKeepsSlotsDense() {
+        BodyStore store = new BodyStore();
+        List<Body> bodies = new ArrayList<>();
+        for( int i = 0; i < 20; i++ ) {
+            Body body = randomBody();
+            bodies.add(body);
+            assertEquals(i, store.add(body));
+        }
+
+        // Remove from the middle, the end, and the start
+        for( int index : new int[] { 10, 18, 0 } ) {
+            Body removed = bodies.remove(index);
+            store.remove(removed);
+            assertEquals(-1, removed.slot);
+            
+            // Removing again does nothing
+            store.remove(removed);
+        }
+        assertEquals(bodies.size(), store.size());
+
+        for( Body body : bodies ) {
+            assertSame(body, store.getBody(body.slot));
+        }
+        for( int i = 0; i < store.size(); i++ ) {
+            assertEquals(i, store.getBody(i).slot);
+        }
+
+        // The moved bodies must have brought their state with them
+        Map<Body, Vec3d> expected = new HashMap<>();
+        for( Body body : bodies ) {
+            Body temp = copy(body);
+            temp.integrate(0.5);
+            expected.put(body, temp.pos);
+        }
+        store.integrate(0.5);
+        store.store();
+        for( Body body : bodies ) {
+            assertVec(expected.get(body), body.pos);
+        }
+    }
+
+    @Test
+    public void testSleepingBodiesAreSkipped() {
+        BodyStore store = new BodyStore();
+        Body awake = randomBody();
+        Body sleeping = randomBody();
+        sleeping.activity = Activity.SLEEPING;
+        Body scenery = randomBody();
+        scenery.activity = Activity.STATIC;
+        store.add(awake);
+        store.add(sleeping);
+        store.add(scenery);
+        assertTrue(store.isAwake(awake.slot));
+        assertFalse(store.isAwake(sleeping.slot));
+        assertFalse(store.isAwake(scenery.slot));
+
+        Vec3d awakeStart = awake.pos.clone();
+        Vec3d sleepingStart = sleeping.pos.clone();
+        Vec3d sceneryStart = scenery.pos.clone();
+        store.integrate(1);
+        store.clamp(0, store.size(), new Vec3d(-1, -1, -1), new Vec3d(1, 1, 1));
+        store.store();
+        assertNotEquals(awakeStart, awake.pos);
+        assertVec(sleepingStart, sleeping.pos);
+        assertVec(sceneryStart, scenery.pos);
+
+        // Waking only matters once the body is loaded again
+        sleeping.wake();
+        store.integrate(1);
+        store.store();
+        assertVec(sleepingStart, sleeping.pos);
+        store.load(sleeping);
+        assertTrue(store.isAwake(sleeping.slot));
+        store.integrate(1);
+        store.store();
+        assertNotEquals(sleepingStart, sleeping.pos);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddTwice() {
+        BodyStore store = new BodyStore();
+        Body body = randomBody();
+        store.add(body);
+        store.add(body);
+    }
+
+    private Body randomBody() {
+        Body result = new Body(new EntityId(nextId++), 
+                               rand.nextDouble() * 40 - 20, 
+                               rand.nextDouble() * 40 - 20, 
+                               rand.nextDouble() * 40 - 20);
+        result.velocity.set(rand.nextDouble() * 10 - 5, rand.nextDouble() * 10 - 5, rand.nextDouble() * 10 - 5);
+        result.acceleration.set(rand.nextDouble() - 0.5, rand.nextDouble() - 0.5, rand.nextDouble() - 0.5);
+        return result;
+    }
+
+    private Body copy( Body body ) {
+        Body result = new Body(body.bodyId);
+        result.pos.set(body.pos);
+        result.velocity.set(body.velocity);
+        result.acceleration.set(body.acceleration);
+        result.activity = body.activity;
+        return result;
+    }
+
+    private static void assertVec( Vec3d expected, Vec3d actual ) {
+        assertEquals(expected.x, actual.x, EPSILON);
+        assertEquals(expected.y, actual.y, EPSILON);
+        assertEquals(expected.z, actual.z, EPSILON);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.sim;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import com.simsilica.es.EntityId;
+import com.simsilica.mathd.*;
+
+/**
+ *  Checks the Body sleep and wake rules.
+ *
+ *  @author    agent
+ */
+public class BodyTest {
+
+    private static final int SLEEP_TICKS = 5;
+    private static final double REST = 0.01;
+
+    @Test
+    public void testFallsAsleep() {
+        Body body = new Body(new EntityId(1));
+        body.velocity.set(0.001, 0, 0);
+        for( int i = 1; i < SLEEP_TICKS; i++ ) {
+            assertTrue("Tick:" + i, body.updateActivity(SLEEP_TICKS, REST));
+        }
+        assertFalse(body.updateActivity(SLEEP_TICKS, REST));
+        assertEquals(Activity.SLEEPING, body.activity);
+        
+        // Sleeps exactly where it is
+        assertEquals(new Vec3d(), body.velocity);
+        assertEquals(new Vec3d(), body.acceleration);
+    }
+
+    @Test
+    public void testMovingResetsRest() {
+        Body body = new Body(new EntityId(1));
+        for( int i = 1; i < SLEEP_TICKS; i++ ) {
+            body.updateActivity(SLEEP_TICKS, REST);
+        }
+        body.velocity.set(1, 0, 0);
+        assertTrue(body.updateActivity(SLEEP_TICKS, REST));
+        assertEquals(0, body.restTicks);
+        body.velocity.set(0, 0, 0);
+        assertTrue(body.updateActivity(SLEEP_TICKS, REST));
+        assertEquals(Activity.AWAKE, body.activity);
+    }
+
+    @Test
+    public void testTurningKeepsAwake() {
+        Body body = new Body(new EntityId(1));
+        for( int i = 0; i < SLEEP_TICKS * 2; i++ ) {
+            body.orientation.fromAngles(0, i * 0.1, 0);
+            assertTrue(body.updateActivity(SLEEP_TICKS, REST));
+        }
+    }
+
+    @Test
+    public void testSleepingWakesWhenMoved() {
+        Body body = new Body(new EntityId(1));
+        body.activity = Activity.SLEEPING;
+        assertFalse(body.updateActivity(SLEEP_TICKS, REST));
+        
+        // Like a driver pushing it
+        body.acceleration.set(0, 0, 1);
+        assertTrue(body.updateActivity(SLEEP_TICKS, REST));
+        assertEquals(Activity.AWAKE, body.activity);
+    }
+
+    @Test
+    public void testStaticStaysStatic() {
+        Body body = new Body(new EntityId(1));
+        body.invMass = 0;
+        for( int i = 0; i < SLEEP_TICKS; i++ ) {
+            body.updateActivity(SLEEP_TICKS, REST);
+        }
+        assertEquals(Activity.STATIC, body.activity);
+        
+        // Only an explicit wake() can get it going again
+        body.velocity.set(1, 0, 0);
+        assertFalse(body.updateActivity(SLEEP_TICKS, REST));
+        assertEquals(Activity.STATIC, body.activity);
+        
+        body.wake();
+        assertEquals(Activity.AWAKE, body.activity);
+        assertTrue(body.updateActivity(SLEEP_TICKS, REST));
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * $Id$
+ * 
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions 
+ * are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright 
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in 
+ *    the documentation and/or other materials provided with the 
+ *    distribution.
+ * 
+ * 3. Neither the name of the copyright holder nor the names of its 
+ *    contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS 
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT 
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS 
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE 
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, 
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, 
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED 
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package example.sim;
+
+import java.util.*;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import com.simsilica.es.*;
+import com.simsilica.es.base.DefaultEntityData;
+import com.simsilica.mathd.*;
+import com.simsilica.sim.*;
+
+/**
+ *  Checks the RewindSystem queries against testing every body directly,
+ *  including interpolation between frames and reused body indexes.
+ *
+ *  @author    agent
+ */
+public class RewindSystemTest {
+
+    private static final double EPSILON = 1e-4;
+
+    private Random rand = new Random(42);
+    private GameSystemManager systems;
+    private RewindSystem rewind;
+    private long nextId = 1;
+    private long clock;
+
+    @Before
+    public void setUp() {
+        systems = new GameSystemManager();
+        systems.register(EntityData.class, new DefaultEntityData());
+        systems.register(SimplePhysics.class, new SimplePhysics());
+        rewind = new RewindSystem(8, 4);
+        systems.register(RewindSystem.class, rewind);
+        systems.initialize();
+    }
+
+    @After
+    public void tearDown() {
+        systems.terminate();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(-1, rewind.getOldestTime());
+        assertFalse(rewind.raycast(0, new Vec3d(), new Vec3d(1, 0, 0), 100, null, null));
+        assertEquals(0, rewind.sphereQuery(0, new Vec3d(), 100, new ArrayList<EntityId>()));
+    }
+
+    @Test
+    public void testRaycastMatchesBruteForce() {
+        List<Body> bodies = new ArrayList<>();
+        for( int i = 0; i < 300; i++ ) {
+            Body body = body(rand.nextDouble() * 100 - 50, rand.nextDouble() * 40 - 20, 
+                             rand.nextDouble() * 100 - 50);
+            body.radius = (float)(0.2 + rand.nextDouble() * 3);
+            bodies.add(body);
+        }
+        long time = frame(bodies, Collections.<Body>emptyList());
+
+        RewindSystem.Hit hit = new RewindSystem.Hit();
+        int hits = 0;
+        for( int i = 0; i < 500; i++ ) {
+            // Some rays start inside the bodies, some outside everything, 
+            // and some are axis aligned
+            Vec3d origin = new Vec3d(rand.nextDouble() * 140 - 70, rand.nextDouble() * 60 - 30, 
+                                     rand.nextDouble() * 140 - 70);
+            Vec3d dir = new Vec3d(rand.nextDouble() - 0.5, rand.nextDouble() - 0.5, rand.nextDouble() - 0.5);
+            if( i % 10 == 0 ) {
+                dir.set(0, 0, rand.nextBoolean() ? 1 : -1);
+            }
+            double max = rand.nextDouble() * 150;
+            EntityId ignore = i % 3 == 0 ? bodies.get(rand.nextInt(bodies.size())).bodyId : null;
+
+            Body expected = bruteRaycast(bodies, origin, dir, max, ignore);
+            boolean found = rewind.raycast(time, origin, dir, max, ignore, hit);
+            assertEquals("Ray:" + i, expected != null, found);
+            if( expected != null ) {
+                hits++;
+                assertEquals("Ray:" + i, expected.bodyId, hit.entityId);
+                assertEquals(time, hit.time);
+                
+                Vec3d point = dir.normalize().mult(hit.distance).add(origin);
+                assertEquals(0, point.subtract(hit.point).length(), EPSILON);
+            }
+        }
+        assertTrue(hits > 50);
+    }
+
+    @Test
+    public void testSphereQueryMatchesBruteForce() {
+        List<Body> bodies = new ArrayList<>();
+        for( int i = 0; i < 300; i++ ) {
+            bodies.add(body(rand.nextDouble() * 100 - 50, rand.nextDouble() * 40 - 20, 
+                            rand.nextDouble() * 100 - 50));
+        }
+        long time = frame(bodies, Collections.<Body>emptyList());
+ 
+        for( int i = 0; i < 100; i++ ) {
+            Vec3d center = new Vec3d(rand.nextDouble() * 100 - 50, rand.nextDouble() * 40 - 20, 
+                                     rand.nextDouble() * 100 - 50);
+            double radius = rand.nextDouble() * 20;
+            Set<EntityId> expected = new HashSet<>();
+            for( Body body : bodies ) {
+                if( body.pos.distance(center) <= radius + body.radius ) {
+                    expected.add(body.bodyId);
+                }
+            }
+            Set<EntityId> found = new HashSet<>();
+            assertEquals(expected.size(), rewind.sphereQuery(time, center, radius, found));
+            assertEquals(expected, found);
+        }
+    }
+
+    @Test
+    public void testInterpolation() {
+        Body body = body(0, 0, 0);
+        List<Body> list = Collections.singletonList(body);
+        long t1 = frame(list, Collections.<Body>emptyList());
+        body.pos.set(10, 0, 0);
+        long t2 = frame(Collections.<Body>emptyList(), list);
+        long mid = (t1 + t2) / 2;
+        double x = 10.0 * (mid - t1) / (t2 - t1);
+
+        // A ray down the z axis just misses the start and end positions
+        // but hits the body half way
+        RewindSystem.Hit hit = new RewindSystem.Hit();
+        Vec3d origin = new Vec3d(x, 0, -20);
+        Vec3d dir = new Vec3d(0, 0, 1);
+        assertFalse(rewind.raycast(t1, origin, dir, 100, null, hit));
+        assertFalse(rewind.raycast(t2, origin, dir, 100, null, hit));
+        assertTrue(rewind.raycast(mid, origin, dir, 100, null, hit));
+        assertEquals(19, hit.distance, EPSILON);
+
+        // Times outside of the history are clamped
+        assertEquals(1, rewind.sphereQuery(t1 - 1000, new Vec3d(0, 0, 0), 0.5, new ArrayList<EntityId>()));
+        assertEquals(1, rewind.sphereQuery(t2 + 1000, new Vec3d(10, 0, 0), 0.5, new ArrayList<EntityId>()));
+        assertEquals(0, rewind.sphereQuery(t2 + 1000, new Vec3d(0, 0, 0), 0.5, new ArrayList<EntityId>()));
+    }
+
+    @Test
+    public void testHistoryWrapAround() {
+        Body body = body(0, 0, 0);
+        List<Body> list = Collections.singletonList(body);
+        long[] times = new long[20];
+        for( int i = 0; i < times.length; i++ ) {
+            body.pos.set(i * 10, 0, 0);
+            if( i == 0 ) {
+                times[i] = frame(list, Collections.<Body>emptyList());
+            } else {
+                times[i] = frame(Collections.<Body>emptyList(), list);
+            }
+        }
+        
+        // Only the last 8 frames are kept
+        assertEquals(times[12], rewind.getOldestTime());
+        assertEquals(1, rewind.sphereQuery(times[0], new Vec3d(120, 0, 0), 0.5, new ArrayList<EntityId>()));
+        assertEquals(1, rewind.sphereQuery(times[15], new Vec3d(150, 0, 0), 0.5, new ArrayList<EntityId>()));
+    }
+
+    @Test
+    public void testReusedIndexes() {
+        List<Body> none = Collections.emptyList();
+        Body first = body(0, 0, 0);
+        long t1 = frame(Collections.singletonList(first), none);
+        long t2 = frame(none, Collections.singletonList(first), none);
+ 
+        // The second body gets the first one's index but the older frames
+        // must still have the first one
+        Body second = body(10, 0, 0);
+        long t3 = frame(Collections.singletonList(second), none);
+ 
+        List<EntityId> found = new ArrayList<>();
+        rewind.sphereQuery(t1, new Vec3d(0, 0, 0), 0.5, found);
+        assertEquals(Collections.singletonList(first.bodyId), found);
+ 
+        found.clear();
+        rewind.sphereQuery(t2, new Vec3d(0, 0, 0), 100, found);
+        assertEquals(none, found);
+        
+        found.clear();
+        rewind.sphereQuery(t3, new Vec3d(10, 0, 0), 0.5, found);
+        assertEquals(Collections.singletonList(second.bodyId), found);
+        
+        RewindSystem.Hit hit = new RewindSystem.Hit();
+        assertTrue(rewind.raycast(t3, new Vec3d(-10, 0, 0), new Vec3d(1, 0, 0), 100, null, hit));
+        assertEquals(second.bodyId, hit.entityId);
+        assertFalse(rewind.raycast(t3, new Vec3d(-10, 0, 0), new Vec3d(1, 0, 0), 100, second.bodyId, hit));
+    }
+
+    @Test
+    public void testUnpublishedBodiesCarryForward() {
+        Body moving = body(0, 0, 0);
+        Body sleeping = body(0, 0, 10);
+        long t1 = frame(Arrays.asList(moving, sleeping), Collections.<Body>emptyList());
+        moving.pos.set(5, 0, 0);
+        long t2 = frame(Collections.<Body>emptyList(), Collections.singletonList(moving));
+ 
+        List<EntityId> found = new ArrayList<>();
+        rewind.sphereQuery(t2, new Vec3d(0, 0, 10), 0.5, found);
+        assertEquals(Collections.singletonList(sleeping.bodyId), found);
+    }
+
+    /**
+     *  Records a frame where the added bodies are new and the updated bodies
+     *  were added in an earlier frame.  Returns the time of the frame.
+     */
+    private long frame( Collection<Body> added, Collection<Body> updated ) {
+        return frame(added, Collections.<Body>emptyList(), updated);
+    }
+ 
+    /**
+     *  Records a frame with the added, removed, and updated bodies sent
+     *  in the same order as SimplePhysics.  Returns the time of the frame.
+     */
+    private long frame( Collection<Body> added, Collection<Body> removed, Collection<Body> updated ) {
+        SimTime time = systems.getStepTime();
+        clock += 16 * 1000000L;
+        time.update(clock);
+        rewind.beginFrame(time);
+        for( Body body : added ) {
+            rewind.addBody(body);
+        }
+        for( Body body : removed ) {
+            rewind.removeBody(body);
+        }
+        for( Body body : updated ) {
+            rewind.updateBody(body);
+        }
+        rewind.endFrame(time);
+        return time.getTime();
+    }
+
+    /**
+     *  Creates a body at the specified location rounded to float precision
+     *  like the recorded frames.
+     */
+    private Body body( double x, double y, double z ) {
+        return new Body(new EntityId(nextId++), (float)x, (float)y, (float)z);
+    }
+
+    private static Body bruteRaycast( List<Body> bodies, Vec3d origin, Vec3d dir, 
+                                      double maxDistance, EntityId ignore ) {
+        double len = dir.length();
+        Vec3d d = new Vec3d(dir.x / len, dir.y / len, dir.z / len);
+        Body best = null;
+        double bestDist = maxDistance;
+        for( Body body : bodies ) {
+            if( body.bodyId.equals(ignore) ) {
+                continue;
+            }
+            Vec3d m = origin.subtract(body.pos);
+            double c = m.lengthSq() - body.radius * body.radius;
+            double dist;
+            if( c <= 0 ) {
+                dist = 0;
+            } else {
+                double b = m.dot(d);
+                double disc = b * b - c;
+                if( b > 0 || disc < 0 ) {
+                    continue;
+                }
+                dist = -b - Math.sqrt(disc);
+            }
+            if( dist <= bestDist ) {
+                best = body;
+                bestDist = dist;
+            }
+        }
+        return best;
+    }
+}